@@ -0,0 +1,101 @@
+package com.task12.handler;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.task12.ApiHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One request per route through {@link ApiHandler#handleRequest}: routing, authorization, JSON
+ * parsing, validation, the handler and response serialization. DynamoDB and Cognito are the
+ * in-process stubs used for priming, so the numbers exclude the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiHandlerBenchmark {
+    private static final String CREDENTIALS = "{\"email\":\"bench@example.com\",\"password\":\"Bench-Pass1$\"}";
+    private static final String SIGN_UP = "{\"firstName\":\"Bench\",\"lastName\":\"Mark\","
+            + "\"email\":\"bench@example.com\",\"password\":\"Bench-Pass1$\"}";
+    private static final String TABLE = "{\"id\":1,\"number\":1,\"places\":4,\"isVip\":false,\"minOrder\":1000}";
+    private static final String RESERVATION = "{\"tableNumber\":1,\"clientName\":\"Bench Mark\","
+            + "\"phoneNumber\":\"0000000000\",\"date\":\"2024-01-01\",\"slotTimeStart\":\"12:00\",\"slotTimeEnd\":\"13:00\"}";
+    private static final String TABLES = "{\"tables\":[{\"id\":1,\"number\":1,\"places\":4,\"isVip\":false},"
+            + "{\"id\":2,\"number\":2,\"places\":2,\"isVip\":true,\"minOrder\":1000}]}";
+    private static final String RESERVATIONS = "{\"reservations\":[" + RESERVATION + ","
+            + RESERVATION.replace("2024-01-01", "2024-01-02") + "]}";
+
+    @Param({"POST /signup", "POST /signin", "POST /refresh", "GET /tables", "POST /tables", "POST /tables/batch",
+            "GET /tables/{tableId}", "POST /reservations", "POST /reservations/batch", "GET /reservations",
+            "OPTIONS /reservations", "GET /unknown"})
+    public String route;
+
+    private ApiHandler apiHandler;
+    private APIGatewayProxyRequestEvent event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Priming.installStubs();
+        apiHandler = new ApiHandler();
+        int separator = route.indexOf(' ');
+        String method = route.substring(0, separator);
+        String resource = route.substring(separator + 1);
+        event = new APIGatewayProxyRequestEvent()
+                .withHttpMethod(method)
+                .withResource(resource)
+                .withPath(resource)
+                .withPathParameters(resource.contains("{tableId}") ? Map.of("tableId", "1") : null)
+                .withRequestContext(authorizedContext())
+                .withBody(body(method, resource));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Priming.removeStubs();
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent handleRequest() {
+        return apiHandler.handleRequest(event, Priming.StubContext.INSTANCE);
+    }
+
+    private static String body(String method, String resource) {
+        if (!"POST".equals(method)) {
+            return null;
+        }
+        return switch (resource) {
+            case "/signup" -> SIGN_UP;
+            case "/signin" -> CREDENTIALS;
+            case "/refresh" -> "{\"refreshToken\":\"bench\"}";
+            case "/tables" -> TABLE;
+            case "/tables/batch" -> TABLES;
+            case "/reservations" -> RESERVATION;
+            case "/reservations/batch" -> RESERVATIONS;
+            default -> null;
+        };
+    }
+
+    private static APIGatewayProxyRequestEvent.ProxyRequestContext authorizedContext() {
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setAuthorizer(Map.of("claims", Map.of("sub", "bench")));
+        return requestContext;
+    }
+}
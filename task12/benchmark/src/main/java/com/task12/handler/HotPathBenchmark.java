@@ -0,0 +1,104 @@
+package com.task12.handler;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.task12.ApiHandler;
+import com.task12.dto.Reservation;
+import com.task12.dto.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pieces every booking request goes through, measured in isolation: the slot overlap check,
+ * request binding and validation, table item serialization and response construction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+
+    @Param({"10", "100"})
+    public int tables;
+
+    private final LocalTime slotTimeStart = LocalTime.of(12, 0);
+    private final LocalTime slotTimeEnd = LocalTime.of(13, 30);
+    private final RequestBinder<Reservation> reservationBinder = RequestBinder.compile("ReservationRequest", Reservation.class);
+    private final RequestBinder<Table> tableBinder = RequestBinder.compile("TableCreateRequest", Table.class);
+    private final String reservationBody = "{\"tableNumber\":1,\"clientName\":\"Bench Mark\",\"phoneNumber\":\"0000000000\","
+            + "\"date\":\"2024-01-01\",\"slotTimeStart\":\"12:00\",\"slotTimeEnd\":\"13:30\"}";
+    private final String tableBody = "{\"id\":1,\"number\":1,\"places\":4,\"isVip\":false,\"minOrder\":1000}";
+    private SlotBitmap reservedSlots;
+    private List<Map<String, AttributeValue>> tableItems;
+    private String tablesJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        reservedSlots = SlotBitmap.ofRange(LocalTime.of(10, 0), LocalTime.of(11, 0))
+                .or(SlotBitmap.ofRange(LocalTime.of(14, 0), LocalTime.of(16, 0)));
+        tableItems = new ArrayList<>(tables);
+        for (int i = 1; i <= tables; i++) {
+            tableItems.add(Map.of(
+                    "id", new AttributeValue(String.valueOf(i)),
+                    "number", new AttributeValue().withN(String.valueOf(i)),
+                    "places", new AttributeValue().withN("4"),
+                    "isVip", new AttributeValue().withBOOL(i % 5 == 0),
+                    "minOrder", new AttributeValue().withN("1000")));
+        }
+        tablesJson = writeTables();
+    }
+
+    @Benchmark
+    public boolean slotsOverlap() {
+        return SlotBitmap.ofRange(slotTimeStart, slotTimeEnd).intersects(reservedSlots);
+    }
+
+    @Benchmark
+    public Reservation bindReservation() {
+        return reservationBinder.bind(reservationBody);
+    }
+
+    @Benchmark
+    public Table bindTable() {
+        return tableBinder.bind(tableBody);
+    }
+
+    /**
+     * The GET /tables item mapping, without the catalog lookup.
+     */
+    @Benchmark
+    public String writeTables() throws IOException {
+        return JsonCodec.write(generator -> {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("tables");
+            for (Map<String, AttributeValue> item : tableItems) {
+                ItemJson.writeTable(generator, item, true);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        });
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent createResponse() {
+        return ApiHandler.createResponse(200, tablesJson);
+    }
+}
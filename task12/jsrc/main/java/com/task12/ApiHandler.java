@@ -11,19 +11,32 @@ import com.syndicate.deployment.annotations.resources.DependsOn;
 import com.syndicate.deployment.model.DeploymentRuntime;
 import com.syndicate.deployment.model.ResourceType;
 import com.syndicate.deployment.model.RetentionSetting;
-import com.task12.dto.RouteKey;
+import com.task12.handler.CapacityBudget;
+import com.task12.handler.Deadline;
 import com.task12.handler.GetReservationsHandler;
 import com.task12.handler.GetTableByIdHandler;
 import com.task12.handler.GetTablesHandler;
+import com.task12.handler.IdempotentHandler;
+import com.task12.handler.InvocationMetrics;
+import com.task12.handler.PostRefreshHandler;
 import com.task12.handler.PostReservationHandler;
+import com.task12.handler.PostReservationsBatchHandler;
 import com.task12.handler.PostSignInHandler;
 import com.task12.handler.PostSignUpHandler;
 import com.task12.handler.PostTableHandler;
-import com.task12.handler.RouteNotImplementedHandler;
-import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
-import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import com.task12.handler.PostTablesBatchHandler;
+import com.task12.handler.Priming;
+import com.task12.handler.JsonCodec;
+import com.task12.handler.Router;
+import com.task12.handler.TablesCatalog;
+import com.task12.handler.TokenVerifier;
+import com.task12.repository.Repositories;
+import org.crac.Core;
+import org.crac.Resource;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import static com.syndicate.deployment.model.environment.ValueTransformer.USER_POOL_NAME_TO_CLIENT_ID;
 import static com.syndicate.deployment.model.environment.ValueTransformer.USER_POOL_NAME_TO_USER_POOL_ID;
 
@@ -39,62 +52,192 @@ import static com.syndicate.deployment.model.environment.ValueTransformer.USER_P
 @EnvironmentVariables(value = {
 		@EnvironmentVariable(key = "tables_table", value = "${tables_table}"),
 		@EnvironmentVariable(key = "reservations_table", value = "${reservations_table}"),
+		@EnvironmentVariable(key = "availability_table", value = "${availability_table}"),
+		@EnvironmentVariable(key = "idempotency_table", value = "${idempotency_table}"),
+		@EnvironmentVariable(key = "idempotency_ttl_hours", value = "24"),
+		@EnvironmentVariable(key = "storage_engine", value = "dynamodb"),
+		@EnvironmentVariable(key = "item_cache_tables", value = "tables_table=300"),
+		@EnvironmentVariable(key = "item_cache_negative_seconds", value = "30"),
+		@EnvironmentVariable(key = "deadline_reserve_millis", value = "300"),
+		@EnvironmentVariable(key = "dynamodb_hedged_reads", value = "false"),
+		@EnvironmentVariable(key = "metrics_namespace", value = "BookingApi"),
+		@EnvironmentVariable(key = "capacity_budgets", value = ""),
 		@EnvironmentVariable(key = "REGION", value = "${region}"),
 		@EnvironmentVariable(key = "COGNITO_ID", value = "${booking_userpool}", valueTransformer = USER_POOL_NAME_TO_USER_POOL_ID),
 		@EnvironmentVariable(key = "CLIENT_ID", value = "${booking_userpool}", valueTransformer = USER_POOL_NAME_TO_CLIENT_ID)}
 )
-public class ApiHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
-	private final CognitoIdentityProviderClient cognitoClient;
-	private final Map<RouteKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> handlersByRouteKey;
-	private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> routeNotImplementedHandler;
+public class ApiHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>, Resource {
+	public static final Map<String, String> CORS_HEADERS = Map.of(
+			"Access-Control-Allow-Headers", "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token,Idempotency-Key",
+			"Access-Control-Allow-Origin", "*",
+			"Access-Control-Allow-Methods", "*",
+			"Accept-Version", "*"
+	);
+	private static final Map<String, String> PREFLIGHT_HEADERS = withHeader(CORS_HEADERS, "Access-Control-Max-Age", "600");
+	private static final Map<String, Map<String, String>> METHOD_NOT_ALLOWED_HEADERS = new ConcurrentHashMap<>();
+	private final Repositories repositories;
+	private final TablesCatalog tablesCatalog;
+	private final TokenVerifier tokenVerifier;
+	private final Router router;
+	private final CapacityBudget capacityBudget;
 
 	public ApiHandler() {
-		this.cognitoClient = initCognitoClient();
-		this.handlersByRouteKey = initHandlers();
-		this.routeNotImplementedHandler = new RouteNotImplementedHandler();
+		this.repositories = Repositories.fromEnvironment();
+		this.capacityBudget = CapacityBudget.fromEnvironment();
+		this.tablesCatalog = new TablesCatalog(repositories.tables());
+		this.tokenVerifier = new TokenVerifier();
+		this.router = initRouter();
+		Core.getGlobalContext().register(this);
 	}
 
 	public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
-		return getHandler(requestEvent)
-				.handleRequest(requestEvent, context);
+		String method = requestEvent.getHttpMethod();
+		if ("OPTIONS".equals(method)) {
+			// Preflights never reach a handler
+			return new APIGatewayProxyResponseEvent()
+					.withStatusCode(200)
+					.withHeaders(PREFLIGHT_HEADERS);
+		}
+
+		String resource = requestEvent.getResource();
+		Router.Match match = router.match(method, resource != null ? resource : requestEvent.getPath());
+		if (match.getHandler() == null) {
+			return routeNotFound(requestEvent, match);
+		}
+		if (match.getPathParameters() != null && requestEvent.getPathParameters() == null) {
+			requestEvent.setPathParameters(match.getPathParameters());
+		}
+		String route = method + " " + match.getTemplate();
+		try (InvocationMetrics metrics = InvocationMetrics.start(route, context);
+			 Deadline.Scope ignored = Deadline.open(context)) {
+			CapacityBudget.Admission admission = capacityBudget.admit(route);
+			if (admission == CapacityBudget.Admission.REJECT) {
+				metrics.setStatusCode(429);
+				return createResponse(429, JsonCodec.error("Too many requests, please retry later."))
+						.withHeaders(withHeader(CORS_HEADERS, "Retry-After", String.valueOf(capacityBudget.retryAfterSeconds(route))));
+			}
+			if (admission == CapacityBudget.Admission.DEGRADE) {
+				metrics.setDegraded();
+			}
+			try {
+				APIGatewayProxyResponseEvent response = match.getHandler().handleRequest(requestEvent, context);
+				metrics.setStatusCode(response.getStatusCode());
+				return response;
+			} finally {
+				capacityBudget.charge(route, metrics.consumedCapacity());
+			}
+		}
 	}
 
-	private RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> getHandler(APIGatewayProxyRequestEvent requestEvent) {
-		return handlersByRouteKey.getOrDefault(getRouteKey(requestEvent), routeNotImplementedHandler);
+	@Override
+	public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+		Priming.prime(this);
+		tablesCatalog.invalidate();
 	}
 
-	private RouteKey getRouteKey(APIGatewayProxyRequestEvent requestEvent) {
-		return new RouteKey(requestEvent.getHttpMethod(), requestEvent.getResource());
+	@Override
+	public void afterRestore(org.crac.Context<? extends Resource> context) {
+		Priming.reconnect();
+		tablesCatalog.invalidate();
+		tokenVerifier.invalidate();
+		InvocationMetrics.markColdStart();
 	}
 
-	private CognitoIdentityProviderClient initCognitoClient() {
-		return CognitoIdentityProviderClient.builder()
-				.region(Region.of(System.getenv("REGION")))
-				.credentialsProvider(DefaultCredentialsProvider.create())
+	private Router initRouter() {
+		return Router.builder()
+				.route("POST", "/signup", new PostSignUpHandler())
+				.route("POST", "/signin", new PostSignInHandler())
+				.route("POST", "/refresh", new PostRefreshHandler())
+				.route("GET", "/tables", authenticated(new GetTablesHandler(tablesCatalog)))
+				.route("POST", "/tables", authenticated(idempotent(new PostTableHandler(repositories.tables(), tablesCatalog))))
+				.route("POST", "/tables/batch", authenticated(idempotent(new PostTablesBatchHandler(repositories.tables(), tablesCatalog))))
+				.route("GET", "/tables/{tableId}", authenticated(new GetTableByIdHandler(repositories.tables())))
+				.route("POST", "/reservations", authenticated(idempotent(new PostReservationHandler(repositories.reservations(), tablesCatalog))))
+				.route("POST", "/reservations/batch", authenticated(idempotent(new PostReservationsBatchHandler(repositories.reservations(), tablesCatalog))))
+				.route("GET", "/reservations", authenticated(new GetReservationsHandler(repositories.reservations(), tablesCatalog)))
 				.build();
 	}
 
-	private Map<RouteKey, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> initHandlers() {
-		return Map.of(
-				new RouteKey("POST", "/signup"), new PostSignUpHandler(cognitoClient),
-				new RouteKey("POST", "/signin"), new PostSignInHandler(cognitoClient),
-				new RouteKey("GET", "/tables"), new GetTablesHandler(),
-				new RouteKey("POST", "/tables"), new PostTableHandler(),
-				new RouteKey("GET", "/tables/{tableId}"), new GetTableByIdHandler(),
-				new RouteKey("POST", "/reservations"), new PostReservationHandler(),
-				new RouteKey("GET", "/reservations"), new GetReservationsHandler()
-		);
+	/**
+	 * Requests that already passed the API Gateway Cognito authorizer carry its claims and go straight
+	 * through; any other caller must present an idToken, which is verified locally and whose claims are
+	 * then set on the request the same way.
+	 */
+	private RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> authenticated(
+			RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+		return (requestEvent, context) -> {
+			if (hasAuthorizerClaims(requestEvent)) {
+				return handler.handleRequest(requestEvent, context);
+			}
+			Optional<TokenVerifier.Identity> identity = tokenVerifier.verify(bearerToken(requestEvent));
+			if (identity.isPresent()) {
+				setClaims(requestEvent, identity.get());
+				return handler.handleRequest(requestEvent, context);
+			}
+			return createResponse(401, JsonCodec.object("message", "Unauthorized"));
+		};
+	}
+
+	private RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> idempotent(
+			RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+		return new IdempotentHandler(repositories.idempotency(), handler);
+	}
+
+	private static boolean hasAuthorizerClaims(APIGatewayProxyRequestEvent requestEvent) {
+		APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = requestEvent.getRequestContext();
+		return requestContext != null && requestContext.getAuthorizer() != null
+				&& requestContext.getAuthorizer().get("claims") != null;
+	}
+
+	private static void setClaims(APIGatewayProxyRequestEvent requestEvent, TokenVerifier.Identity identity) {
+		Map<String, Object> claims = new HashMap<>();
+		claims.put("sub", identity.subject());
+		if (identity.email() != null) {
+			claims.put("email", identity.email());
+		}
+		if (requestEvent.getRequestContext() == null) {
+			requestEvent.setRequestContext(new APIGatewayProxyRequestEvent.ProxyRequestContext());
+		}
+		requestEvent.getRequestContext().setAuthorizer(Map.of("claims", claims));
+	}
+
+	private static String bearerToken(APIGatewayProxyRequestEvent requestEvent) {
+		Map<String, String> headers = requestEvent.getHeaders();
+		if (headers == null) {
+			return null;
+		}
+		String authorization = headers.get("Authorization");
+		if (authorization == null) {
+			authorization = headers.get("authorization");
+		}
+		if (authorization != null && authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+			return authorization.substring(7);
+		}
+		return authorization;
+	}
+
+	private static APIGatewayProxyResponseEvent routeNotFound(APIGatewayProxyRequestEvent requestEvent, Router.Match match) {
+		if (!match.isPathFound()) {
+			return createResponse(404, JsonCodec.object("message",
+					"No route for the %s path.".formatted(requestEvent.getPath())));
+		}
+		return new APIGatewayProxyResponseEvent()
+				.withStatusCode(405)
+				.withHeaders(METHOD_NOT_ALLOWED_HEADERS.computeIfAbsent(match.getAllow(), allow -> withHeader(CORS_HEADERS, "Allow", allow)))
+				.withBody(JsonCodec.object("message",
+						"The %s method is not allowed on the %s path.".formatted(requestEvent.getHttpMethod(), requestEvent.getPath())));
+	}
+
+	private static Map<String, String> withHeader(Map<String, String> headers, String name, String value) {
+		Map<String, String> result = new HashMap<>(headers);
+		result.put(name, value);
+		return Map.copyOf(result);
 	}
 
 	public static APIGatewayProxyResponseEvent createResponse(int statusCode, String body) {
 		return new APIGatewayProxyResponseEvent()
 				.withStatusCode(statusCode)
-				.withHeaders(Map.of(
-						"Access-Control-Allow-Headers", "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token",
-						"Access-Control-Allow-Origin", "*",
-						"Access-Control-Allow-Methods", "*",
-						"Accept-Version", "*"
-				))
+				.withHeaders(CORS_HEADERS)
 				.withBody(body);
 	}
 }
@@ -0,0 +1,233 @@
+package com.task12;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
+import com.syndicate.deployment.annotations.events.RuleEventSource;
+import com.syndicate.deployment.annotations.lambda.LambdaHandler;
+import com.syndicate.deployment.annotations.resources.DependsOn;
+import com.syndicate.deployment.model.DeploymentRuntime;
+import com.syndicate.deployment.model.ResourceType;
+import com.syndicate.deployment.model.RetentionSetting;
+import com.task12.export.CapacityLimiter;
+import com.task12.export.MultipartUploadOutputStream;
+import com.task12.export.RowFormat;
+import com.task12.handler.DynamoSupport;
+import com.task12.handler.LazyClient;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Nightly dump of the reservations table to S3 as gzip NDJSON (or CSV with {"format": "csv"}).
+ * The table is read with a parallel Scan, one bounded worker per segment, and rows are streamed
+ * into a multipart upload through a small queue, so heap use does not grow with the table.
+ * Workers share a capacity limiter so the export stays under export_read_share of the table's
+ * provisioned read capacity per second, or export_read_capacity RCU per second when that is set.
+ * <p>
+ * One invocation reads at most that rate times its 900 s timeout: with the default share of a 1 RCU
+ * table, about 450 RCU or 3.6 MB of items. A table estimated to be larger is not started on, and an
+ * export still running when the time is nearly up stops and aborts its upload; either way the result
+ * has statusCode 500, and the rate has to be raised.
+ */
+@LambdaHandler(
+    lambdaName = "reservations_export",
+	roleName = "reservations_export-role",
+		runtime = DeploymentRuntime.JAVA17,
+	isPublishVersion = true,
+	aliasName = "${lambdas_alias_name}",
+	timeout = 900,
+	logsExpiration = RetentionSetting.SYNDICATE_ALIASES_SPECIFIED
+)
+@EnvironmentVariables(value = {
+		@EnvironmentVariable(key = "reservations_table", value = "${reservations_table}"),
+		@EnvironmentVariable(key = "export_bucket", value = "${export_bucket}"),
+		@EnvironmentVariable(key = "export_read_share", value = "0.5"),
+		@EnvironmentVariable(key = "REGION", value = "${region}")}
+)
+@RuleEventSource(
+		targetRule = "reservations_export_trigger"
+)
+@DependsOn(
+		name = "reservations_export_trigger",
+		resourceType = ResourceType.CLOUDWATCH_RULE
+)
+public class ReservationsExport extends DynamoSupport implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+	private static final String RESERVATIONS_TABLE = "reservations_table";
+	private static final String EXPORT_BUCKET = "export_bucket";
+	private static final String READ_CAPACITY = "export_read_capacity";
+	private static final String READ_SHARE = "export_read_share";
+	// An on-demand table has no provisioned capacity to take a share of
+	private static final double ON_DEMAND_READ_CAPACITY = 100;
+	// An eventually consistent read unit covers two 4 KB reads
+	private static final long BYTES_PER_READ_UNIT = 8 * 1024;
+	// Left to finish the upload, or abort it, before the invocation times out
+	private static final long MIN_REMAINING_MILLIS = 30_000;
+	private static final List<String> COLUMNS = List.of(
+			"id", "tableNumber", "clientName", "phoneNumber", "date", "slotTimeStart", "slotTimeEnd");
+	private static final int DEFAULT_SEGMENTS = 4;
+	private static final int MAX_SEGMENTS = 16;
+	private static final int PAGE_SIZE = 500;
+	private static final LazyClient<AmazonS3> S3_CLIENT = new LazyClient<>(
+			() -> AmazonS3ClientBuilder.standard().withRegion(System.getenv("REGION")).build(),
+			AmazonS3::shutdown);
+
+	@Override
+	public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+		RowFormat format = "csv".equalsIgnoreCase(String.valueOf(input == null ? null : input.get("format")))
+				? RowFormat.CSV
+				: RowFormat.NDJSON;
+		int segments = Math.max(1, Math.min(MAX_SEGMENTS, Optional.ofNullable(input == null ? null : input.get("segments"))
+				.map(value -> Integer.parseInt(value.toString()))
+				.orElse(DEFAULT_SEGMENTS)));
+		TableDescription table = getDynamoDbClient().describeTable(getTableName(RESERVATIONS_TABLE)).getTable();
+		double readCapacity = readCapacity(table);
+		long readMillis = (long) (Optional.ofNullable(table.getTableSizeBytes()).orElse(0L) / BYTES_PER_READ_UNIT / readCapacity * 1000);
+		if (readMillis > context.getRemainingTimeInMillis() - MIN_REMAINING_MILLIS) {
+			String message = "Reading about " + table.getTableSizeBytes() + " bytes at " + readCapacity
+					+ " RCU per second takes longer than the invocation may run; raise " + READ_SHARE + " or " + READ_CAPACITY;
+			context.getLogger().log("Error: " + message);
+			Map<String, Object> errorMap = new HashMap<>();
+			errorMap.put("statusCode", 500);
+			errorMap.put("body", message);
+			return errorMap;
+		}
+		String bucket = getTableName(EXPORT_BUCKET);
+		String key = "reservations/%s/reservations-%d.%s.gz".formatted(
+				LocalDate.now(ZoneOffset.UTC), Instant.now().toEpochMilli(), format.getExtension());
+
+		CapacityLimiter limiter = new CapacityLimiter(readCapacity);
+		BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(segments * 2);
+		ExecutorService workers = Executors.newFixedThreadPool(segments);
+		MultipartUploadOutputStream upload = new MultipartUploadOutputStream(S3_CLIENT.get(), bucket, key);
+		try {
+			List<Future<Long>> scans = new ArrayList<>();
+			for (int segment = 0; segment < segments; segment++) {
+				int currentSegment = segment;
+				scans.add(workers.submit(() -> scanSegment(currentSegment, segments, format, chunks, limiter)));
+			}
+
+			GZIPOutputStream gzip = new GZIPOutputStream(upload, 64 * 1024);
+			format.writeHeader(gzip, COLUMNS);
+			drain(chunks, scans, gzip, context);
+			// Completing the upload only on success; a failed export is aborted below
+			gzip.finish();
+			upload.close();
+
+			long rows = 0;
+			for (Future<Long> scan : scans) {
+				rows += scan.get();
+			}
+			context.getLogger().log("Exported " + rows + " reservations to s3://" + bucket + "/" + key);
+
+			Map<String, Object> resultMap = new HashMap<>();
+			resultMap.put("statusCode", 200);
+			resultMap.put("key", key);
+			resultMap.put("rows", rows);
+			return resultMap;
+		} catch (Exception e) {
+			context.getLogger().log("Error: " + e.getMessage());
+			upload.abort();
+
+			Map<String, Object> errorMap = new HashMap<>();
+			errorMap.put("statusCode", 500);
+			errorMap.put("body", "An error occurred: " + e.getMessage());
+			return errorMap;
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
+	private long scanSegment(int segment, int totalSegments, RowFormat format, BlockingQueue<byte[]> chunks,
+							 CapacityLimiter limiter) throws Exception {
+		ScanRequest scanRequest = new ScanRequest()
+				.withTableName(getTableName(RESERVATIONS_TABLE))
+				.withSegment(segment)
+				.withTotalSegments(totalSegments)
+				.withLimit(PAGE_SIZE)
+				.withReturnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+
+		long rows = 0;
+		Map<String, AttributeValue> lastEvaluatedKey = null;
+		do {
+			ScanResult scanResult = getDynamoDbClient().scan(scanRequest.withExclusiveStartKey(lastEvaluatedKey));
+			if (!scanResult.getItems().isEmpty()) {
+				ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+				for (Map<String, AttributeValue> item : scanResult.getItems()) {
+					format.writeRow(chunk, COLUMNS, item);
+				}
+				rows += scanResult.getItems().size();
+				chunks.put(chunk.toByteArray());
+			}
+			if (scanResult.getConsumedCapacity() != null) {
+				limiter.acquire(scanResult.getConsumedCapacity().getCapacityUnits());
+			}
+			lastEvaluatedKey = scanResult.getLastEvaluatedKey();
+		} while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty());
+		return rows;
+	}
+
+	/**
+	 * RCU per second for the export: export_read_capacity when set, otherwise export_read_share of the
+	 * table's provisioned read capacity.
+	 */
+	private static double readCapacity(TableDescription table) {
+		String readCapacity = System.getenv(READ_CAPACITY);
+		if (readCapacity != null) {
+			return Double.parseDouble(readCapacity);
+		}
+		Long provisioned = table.getProvisionedThroughput() != null ? table.getProvisionedThroughput().getReadCapacityUnits() : null;
+		if (provisioned == null || provisioned == 0) {
+			return ON_DEMAND_READ_CAPACITY;
+		}
+		return provisioned * Double.parseDouble(Optional.ofNullable(System.getenv(READ_SHARE)).orElse("0.5"));
+	}
+
+	private static void drain(BlockingQueue<byte[]> chunks, List<Future<Long>> scans, GZIPOutputStream out,
+							  Context context) throws Exception {
+		while (true) {
+			if (context.getRemainingTimeInMillis() < MIN_REMAINING_MILLIS) {
+				throw new TimeoutException("Ran out of time before the whole table was read");
+			}
+			byte[] chunk = chunks.poll(100, TimeUnit.MILLISECONDS);
+			if (chunk != null) {
+				out.write(chunk);
+				continue;
+			}
+			boolean finished = true;
+			for (Future<Long> scan : scans) {
+				if (scan.isDone()) {
+					scan.get(); // surfaces a failed segment
+				} else {
+					finished = false;
+				}
+			}
+			if (finished && chunks.isEmpty()) {
+				return;
+			}
+		}
+	}
+}
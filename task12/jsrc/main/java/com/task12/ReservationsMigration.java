@@ -0,0 +1,140 @@
+package com.task12;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariable;
+import com.syndicate.deployment.annotations.environment.EnvironmentVariables;
+import com.syndicate.deployment.annotations.lambda.LambdaHandler;
+import com.syndicate.deployment.model.DeploymentRuntime;
+import com.syndicate.deployment.model.RetentionSetting;
+import com.task12.handler.DynamoSupport;
+import com.task12.repository.DynamoReservationRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.task12.repository.ReservationRepository.endMinuteOfDay;
+import static com.task12.repository.ReservationRepository.minuteOfDay;
+import static com.task12.repository.ReservationRepository.occupiedEndMinute;
+import static com.task12.repository.ReservationRepository.slotKey;
+import static com.task12.repository.ReservationRepository.startAt;
+
+/**
+ * Backfills the index attributes (slotKey, and the numeric startAt, startMinute and endMinute) of
+ * reservations written before the attributes existed, and the endMinute of reservations ending at
+ * 00:00 that were stored as 0 instead of 1440. Reservations whose slotTimeEnd is not after their
+ * slotTimeStart, which the first version accepted, get the endMinute of the end of their day and are
+ * logged for review. Safe to re-run: only items missing startAt or with an endMinute that is not after
+ * their startMinute are touched. When the invocation runs
+ * out of time the returned "lastEvaluatedKey" is passed back as input to resume. A run that reaches
+ * the end of the table marks the migration complete; until then, bookings also Scan for the
+ * reservations of a day that have no slotKey yet.
+ */
+@LambdaHandler(
+    lambdaName = "reservations_migration",
+	roleName = "reservations_migration-role",
+		runtime = DeploymentRuntime.JAVA17,
+	isPublishVersion = true,
+	aliasName = "${lambdas_alias_name}",
+	logsExpiration = RetentionSetting.SYNDICATE_ALIASES_SPECIFIED
+)
+@EnvironmentVariables(value = {
+		@EnvironmentVariable(key = "reservations_table", value = "${reservations_table}"),
+		@EnvironmentVariable(key = "availability_table", value = "${availability_table}"),
+		@EnvironmentVariable(key = "REGION", value = "${region}")}
+)
+public class ReservationsMigration extends DynamoSupport implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+	private static final String RESERVATIONS_TABLE = "reservations_table";
+	private static final String LAST_EVALUATED_KEY = "lastEvaluatedKey";
+	private static final long MIN_REMAINING_MILLIS = 5000;
+
+	@Override
+	public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+		String tableName = getTableName(RESERVATIONS_TABLE);
+		ScanRequest scanRequest = new ScanRequest()
+				.withTableName(tableName)
+				.withFilterExpression("attribute_not_exists(#startAt) or #endMinute <= #startMinute")
+				.withProjectionExpression("#id, #date, #slotTimeStart, #slotTimeEnd")
+				.withExpressionAttributeNames(Map.of(
+						"#id", "id",
+						"#startAt", "startAt",
+						"#startMinute", "startMinute",
+						"#endMinute", "endMinute",
+						"#date", "date",
+						"#slotTimeStart", "slotTimeStart",
+						"#slotTimeEnd", "slotTimeEnd"));
+
+		Map<String, AttributeValue> lastEvaluatedKey = null;
+		if (input != null && input.get(LAST_EVALUATED_KEY) != null) {
+			lastEvaluatedKey = Map.of("id", new AttributeValue(input.get(LAST_EVALUATED_KEY).toString()));
+		}
+
+		int migrated = 0;
+		do {
+			ScanResult scanResult = getDynamoDbClient().scan(scanRequest.withExclusiveStartKey(lastEvaluatedKey));
+			for (Map<String, AttributeValue> reservation : scanResult.getItems()) {
+				if (migrate(tableName, reservation, context)) {
+					migrated++;
+				}
+			}
+			lastEvaluatedKey = scanResult.getLastEvaluatedKey();
+		} while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty()
+				&& context.getRemainingTimeInMillis() > MIN_REMAINING_MILLIS);
+
+		context.getLogger().log("Migrated reservations: " + migrated);
+		boolean completed = lastEvaluatedKey == null || lastEvaluatedKey.isEmpty();
+		if (completed) {
+			new DynamoReservationRepository().markMigrated();
+		}
+		Map<String, Object> result = new HashMap<>();
+		result.put("migrated", migrated);
+		result.put("completed", completed);
+		if (!completed) {
+			result.put(LAST_EVALUATED_KEY, lastEvaluatedKey.get("id").getS());
+		}
+		return result;
+	}
+
+	private boolean migrate(String tableName, Map<String, AttributeValue> reservation, Context context) {
+		if (!reservation.containsKey("date") || !reservation.containsKey("slotTimeStart")
+				|| !reservation.containsKey("slotTimeEnd")) {
+			return false;
+		}
+		String date = reservation.get("date").getS();
+		String slotTimeStart = reservation.get("slotTimeStart").getS();
+		int startMinute = minuteOfDay(slotTimeStart);
+		String slotTimeEnd = reservation.get("slotTimeEnd").getS();
+		int endMinute = occupiedEndMinute(startMinute, endMinuteOfDay(slotTimeEnd));
+		if (endMinute != endMinuteOfDay(slotTimeEnd)) {
+			context.getLogger().log("Reservation " + reservation.get("id").getS() + " ends at " + slotTimeEnd
+					+ ", not after " + slotTimeStart + "; it now takes the rest of its day");
+		}
+		try {
+			getDynamoDbClient().updateItem(new UpdateItemRequest()
+					.withTableName(tableName)
+					.withKey(Map.of("id", reservation.get("id")))
+					.withUpdateExpression("SET #slotKey = if_not_exists(#slotKey, :slotKey), #startMinute = :startMinute,"
+							+ " #endMinute = :endMinute, #startAt = :startAt")
+					.withConditionExpression("attribute_exists(#id) and (attribute_not_exists(#startAt) or #endMinute <= #startMinute)")
+					.withExpressionAttributeNames(Map.of(
+							"#id", "id",
+							"#slotKey", "slotKey",
+							"#startMinute", "startMinute",
+							"#endMinute", "endMinute",
+							"#startAt", "startAt"))
+					.withExpressionAttributeValues(Map.of(
+							":slotKey", new AttributeValue(slotKey(date, slotTimeStart)),
+							":startMinute", new AttributeValue().withN(String.valueOf(startMinute)),
+							":endMinute", new AttributeValue().withN(String.valueOf(endMinute)),
+							":startAt", new AttributeValue().withN(String.valueOf(startAt(date, startMinute))))));
+			return true;
+		} catch (ConditionalCheckFailedException e) {
+			return false;
+		}
+	}
+}
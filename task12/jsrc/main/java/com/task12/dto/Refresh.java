@@ -0,0 +1,3 @@
+package com.task12.dto;
+
+public record Refresh(String refreshToken) {}
@@ -0,0 +1,4 @@
+package com.task12.dto;
+
+public record Reservation(Integer tableNumber, String clientName, String phoneNumber, String date,
+                          String slotTimeStart, String slotTimeEnd) {}
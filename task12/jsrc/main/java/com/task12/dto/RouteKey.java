@@ -1,3 +0,0 @@
-package com.task12.dto;
-
-public record RouteKey(String method, String path) {}
\ No newline at end of file
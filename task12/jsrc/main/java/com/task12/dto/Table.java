@@ -0,0 +1,3 @@
+package com.task12.dto;
+
+public record Table(Integer id, Integer number, Integer places, Boolean isVip, Integer minOrder) {}
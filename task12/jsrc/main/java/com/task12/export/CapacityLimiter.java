@@ -0,0 +1,36 @@
+package com.task12.export;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces readers to a number of capacity units per second. Each caller pays for the capacity its
+ * last request consumed, so bursts are followed by a proportional pause shared by all threads.
+ */
+public class CapacityLimiter {
+    private final double nanosPerUnit;
+    private long nextFreeNanos = System.nanoTime();
+
+    public CapacityLimiter(double unitsPerSecond) {
+        if (unitsPerSecond <= 0) {
+            throw new IllegalArgumentException("unitsPerSecond must be positive");
+        }
+        this.nanosPerUnit = TimeUnit.SECONDS.toNanos(1) / unitsPerSecond;
+    }
+
+    public void acquire(double consumedUnits) throws InterruptedException {
+        long waitNanos = reserve(consumedUnits);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve(double consumedUnits) {
+        long now = System.nanoTime();
+        if (nextFreeNanos < now) {
+            nextFreeNanos = now;
+        }
+        long waitNanos = nextFreeNanos - now;
+        nextFreeNanos += (long) (consumedUnits * nanosPerUnit);
+        return waitNanos;
+    }
+}
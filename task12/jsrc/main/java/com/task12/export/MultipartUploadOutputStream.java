@@ -0,0 +1,90 @@
+package com.task12.export;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams bytes into an S3 multipart upload, holding at most one part in memory.
+ * {@link #close()} completes the upload; {@link #abort()} discards it.
+ */
+public class MultipartUploadOutputStream extends OutputStream {
+    private static final int PART_SIZE = 8 * 1024 * 1024;
+    private final AmazonS3 s3Client;
+    private final String bucket;
+    private final String key;
+    private final String uploadId;
+    private final List<PartETag> partETags = new ArrayList<>();
+    private final byte[] buffer = new byte[PART_SIZE];
+    private int position;
+    private boolean closed;
+
+    public MultipartUploadOutputStream(AmazonS3 s3Client, String bucket, String key) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.key = key;
+        this.uploadId = s3Client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, key)).getUploadId();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (position == buffer.length) {
+            uploadPart(false);
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (position == buffer.length) {
+                uploadPart(false);
+            }
+            int chunk = Math.min(length, buffer.length - position);
+            System.arraycopy(bytes, offset, buffer, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        uploadPart(true);
+        s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+    }
+
+    public void abort() {
+        closed = true;
+        s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+    }
+
+    private void uploadPart(boolean lastPart) throws IOException {
+        if (position == 0 && !(lastPart && partETags.isEmpty())) {
+            return;
+        }
+        partETags.add(s3Client.uploadPart(new UploadPartRequest()
+                .withBucketName(bucket)
+                .withKey(key)
+                .withUploadId(uploadId)
+                .withPartNumber(partETags.size() + 1)
+                .withInputStream(new ByteArrayInputStream(buffer, 0, position))
+                .withPartSize(position)
+                .withLastPart(lastPart))
+                .getPartETag());
+        position = 0;
+    }
+}
@@ -0,0 +1,102 @@
+package com.task12.export;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Export file layouts. Rows are written straight from DynamoDB items, one column per attribute name.
+ */
+public enum RowFormat {
+    NDJSON("ndjson") {
+        @Override
+        public void writeHeader(OutputStream out, List<String> columns) {
+        }
+
+        @Override
+        public void writeRow(OutputStream out, List<String> columns, Map<String, AttributeValue> item) throws IOException {
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+                generator.writeStartObject();
+                for (String column : columns) {
+                    AttributeValue value = item.get(column);
+                    if (value == null) {
+                        continue;
+                    }
+                    generator.writeFieldName(column);
+                    if (value.getN() != null) {
+                        generator.writeNumber(value.getN());
+                    } else if (value.getBOOL() != null) {
+                        generator.writeBoolean(value.getBOOL());
+                    } else {
+                        generator.writeString(value.getS());
+                    }
+                }
+                generator.writeEndObject();
+            }
+            out.write('\n');
+        }
+    },
+    CSV("csv") {
+        @Override
+        public void writeHeader(OutputStream out, List<String> columns) throws IOException {
+            out.write(String.join(",", columns).getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        }
+
+        @Override
+        public void writeRow(OutputStream out, List<String> columns, Map<String, AttributeValue> item) throws IOException {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                AttributeValue value = item.get(columns.get(i));
+                if (value != null) {
+                    writeCsvValue(writer, value.getN() != null ? value.getN()
+                            : value.getBOOL() != null ? value.getBOOL().toString() : value.getS());
+                }
+            }
+            writer.write('\n');
+            writer.flush();
+        }
+    };
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final String extension;
+
+    RowFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract void writeHeader(OutputStream out, List<String> columns) throws IOException;
+
+    public abstract void writeRow(OutputStream out, List<String> columns, Map<String, AttributeValue> item) throws IOException;
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,105 @@
+package com.task12.handler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-route budgets of DynamoDB capacity units, set with capacity_budgets as
+ * "METHOD /template=unitsPerSecond:reject|degrade,...". Each route has a token bucket that refills
+ * at its rate and holds up to ten seconds of it; every invocation is charged what it actually
+ * consumed. A request is admitted while the bucket covers what the route usually consumes; otherwise
+ * it is rejected with 429, or, in degrade mode, served from cached data with smaller pages.
+ * <p>
+ * Buckets are per container, so a budget is best set to the provisioned throughput divided by the
+ * number of containers expected to serve the route.
+ */
+public final class CapacityBudget {
+    private static final long BURST_SECONDS = 10;
+    private static final double ESTIMATE_WEIGHT = 0.2;
+    private final Map<String, Bucket> buckets;
+
+    public enum Admission {
+        ADMIT, DEGRADE, REJECT
+    }
+
+    private static final class Bucket {
+        private final double unitsPerSecond;
+        private final boolean degrade;
+        private double tokens;
+        private double estimate;
+        private long refilledAt = System.nanoTime();
+
+        private Bucket(double unitsPerSecond, boolean degrade) {
+            this.unitsPerSecond = unitsPerSecond;
+            this.degrade = degrade;
+            this.tokens = unitsPerSecond * BURST_SECONDS;
+        }
+
+        synchronized Admission admit() {
+            refill();
+            if (tokens >= estimate && tokens > 0) {
+                return Admission.ADMIT;
+            }
+            return degrade ? Admission.DEGRADE : Admission.REJECT;
+        }
+
+        synchronized void charge(double units) {
+            refill();
+            tokens = Math.max(tokens - units, -unitsPerSecond * BURST_SECONDS);
+            estimate += ESTIMATE_WEIGHT * (units - estimate);
+        }
+
+        synchronized long secondsUntilAdmitted() {
+            return (long) Math.ceil(Math.max(estimate - tokens, 1) / unitsPerSecond);
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(tokens + (now - refilledAt) / 1e9 * unitsPerSecond, unitsPerSecond * BURST_SECONDS);
+            refilledAt = now;
+        }
+    }
+
+    private CapacityBudget(Map<String, Bucket> buckets) {
+        this.buckets = Map.copyOf(buckets);
+    }
+
+    public static CapacityBudget fromEnvironment() {
+        Map<String, Bucket> buckets = new HashMap<>();
+        String budgets = Optional.ofNullable(System.getenv("capacity_budgets")).orElse("");
+        for (String budget : budgets.split(",")) {
+            int separator = budget.lastIndexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            String[] limit = budget.substring(separator + 1).trim().split(":");
+            boolean degrade = limit.length > 1 && "degrade".equalsIgnoreCase(limit[1].trim());
+            buckets.put(budget.substring(0, separator).trim(), new Bucket(Double.parseDouble(limit[0].trim()), degrade));
+        }
+        return new CapacityBudget(buckets);
+    }
+
+    /**
+     * @param route "METHOD /template", the route key of {@link InvocationMetrics}
+     */
+    public Admission admit(String route) {
+        Bucket bucket = buckets.get(route);
+        return bucket == null ? Admission.ADMIT : bucket.admit();
+    }
+
+    public void charge(String route, double units) {
+        Bucket bucket = buckets.get(route);
+        if (bucket != null) {
+            bucket.charge(units);
+        }
+    }
+
+    /**
+     * A Retry-After value for a rejected request.
+     */
+    public long retryAfterSeconds(String route) {
+        Bucket bucket = buckets.get(route);
+        return bucket == null ? 1 : bucket.secondsUntilAdmitted();
+    }
+}
@@ -1,28 +1,60 @@
 package com.task12.handler;
 
-import org.json.JSONObject;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.task12.dto.SignUp;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthResponse;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminRespondToAuthChallengeRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminSetUserPasswordRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowType;
-import software.amazon.awssdk.services.cognitoidentityprovider.model.ChallengeNameType;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.DeliveryMediumType;
+
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
 import java.util.regex.Pattern;
 
 public abstract class CognitoSupport {
+    static final LazyClient<CognitoIdentityProviderClient> COGNITO_CLIENT = new LazyClient<>(CognitoSupport::initCognitoClient, CognitoIdentityProviderClient::close);
     private static final Pattern PASSWORD_PATTERN = Pattern.compile("^(?=.*[A-Za-z])(?=.*\\d)(?=.*[$%^\\*\\-_])[A-Za-z\\d$%^\\*\\-_]{12,}$");
     public static final String EMAIL = "email";
     public static final String PASSWORD = "password";
     private final String userPoolId = System.getenv("COGNITO_ID");
     private final String clientId = System.getenv("CLIENT_ID");
-    private final CognitoIdentityProviderClient cognitoClient;
 
-    protected CognitoSupport(CognitoIdentityProviderClient cognitoClient) {
-        this.cognitoClient = cognitoClient;
+    protected CognitoIdentityProviderClient getCognitoClient() {
+        return COGNITO_CLIENT.get();
+    }
+
+    private static CognitoIdentityProviderClient initCognitoClient() {
+        return CognitoIdentityProviderClient.builder()
+                .region(Region.of(System.getenv("REGION")))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .overrideConfiguration(configuration -> configuration
+                        .retryStrategy(RetryMode.ADAPTIVE_V2)
+                        .apiCallAttemptTimeout(Duration.ofSeconds(5))
+                        .addExecutionInterceptor(new MetricsInterceptor("Cognito")))
+                .build();
+    }
+
+    /**
+     * Caps a call, retries included, at the time the invocation's {@link Deadline} leaves.
+     */
+    private static AwsRequestOverrideConfiguration withinDeadline() {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return null;
+        }
+        return AwsRequestOverrideConfiguration.builder()
+                .apiCallTimeout(Duration.ofMillis(Math.max(deadline.remainingMillis(), 1)))
+                .build();
     }
 
     protected AdminInitiateAuthResponse cognitoSignIn(String email, String password) {
@@ -31,21 +63,49 @@ public abstract class CognitoSupport {
                 "PASSWORD", password
         );
 
-        return cognitoClient.adminInitiateAuth(AdminInitiateAuthRequest.builder()
+        return getCognitoClient().adminInitiateAuth(AdminInitiateAuthRequest.builder()
                 .authFlow(AuthFlowType.ADMIN_NO_SRP_AUTH)
                 .authParameters(authParams)
                 .userPoolId(userPoolId)
                 .clientId(clientId)
+                .overrideConfiguration(withinDeadline())
                 .build());
     }
 
-    protected void cognitoSignUp(JSONObject requestBody) {
-        String email = requestBody.getString("email");
-        String password = requestBody.getString("password");
-        String firstName = requestBody.getString("firstName");
-        String lastName = requestBody.getString("lastName");
+    /**
+     * Exchanges a refresh token from a previous sign-in for new id and access tokens, without the password.
+     */
+    protected AdminInitiateAuthResponse cognitoRefresh(String refreshToken) {
+        return getCognitoClient().adminInitiateAuth(AdminInitiateAuthRequest.builder()
+                .authFlow(AuthFlowType.REFRESH_TOKEN_AUTH)
+                .authParameters(Map.of("REFRESH_TOKEN", refreshToken))
+                .userPoolId(userPoolId)
+                .clientId(clientId)
+                .overrideConfiguration(withinDeadline())
+                .build());
+    }
 
-        cognitoClient.adminCreateUser(AdminCreateUserRequest.builder()
+    /**
+     * Writes the tokens of an authentication result as fields of the current object. A refresh
+     * returns no new refresh token, so that field is only present after a password sign-in.
+     */
+    protected static void writeTokens(JsonGenerator generator, AuthenticationResultType authenticationResult) throws IOException {
+        generator.writeStringField("idToken", authenticationResult.idToken());
+        if (authenticationResult.refreshToken() != null) {
+            generator.writeStringField("refreshToken", authenticationResult.refreshToken());
+        }
+        if (authenticationResult.expiresIn() != null) {
+            generator.writeNumberField("expiresIn", authenticationResult.expiresIn());
+        }
+    }
+
+    protected void cognitoSignUp(SignUp requestBody) {
+        String email = requestBody.email();
+        String password = requestBody.password();
+        String firstName = requestBody.firstName();
+        String lastName = requestBody.lastName();
+
+        getCognitoClient().adminCreateUser(AdminCreateUserRequest.builder()
                         .userPoolId(userPoolId)
                         .username(email)
                         .temporaryPassword(password)
@@ -69,51 +129,39 @@ public abstract class CognitoSupport {
                         .desiredDeliveryMediums(DeliveryMediumType.EMAIL)
                         .messageAction("SUPPRESS")
                         .forceAliasCreation(Boolean.FALSE)
+                        .overrideConfiguration(withinDeadline())
                         .build()
         );
     }
 
-    protected void confirmSignUp(JSONObject requestBody) {
-        String email = requestBody.getString("email");
-        String password = requestBody.getString("password");
-        AdminInitiateAuthResponse adminInitiateAuthResponse = cognitoSignIn(email, password);
-
-
-        if (!ChallengeNameType.NEW_PASSWORD_REQUIRED.name().equals(adminInitiateAuthResponse.challengeNameAsString())) {
-            throw new RuntimeException("unexpected challenge: " + adminInitiateAuthResponse.challengeNameAsString());
-        }
-
-        Map<String, String> challengeResponses = Map.of(
-                "USERNAME", email,
-                "PASSWORD", password,
-                "NEW_PASSWORD", password
-        );
-
-        cognitoClient.adminRespondToAuthChallenge(AdminRespondToAuthChallengeRequest.builder()
-                .challengeName(ChallengeNameType.NEW_PASSWORD_REQUIRED)
-                .challengeResponses(challengeResponses)
+    /**
+     * Makes the password of a freshly created user permanent, which also moves the user to CONFIRMED,
+     * so sign-up needs no auth challenge round trip.
+     */
+    protected void setPermanentPassword(String email, String password) {
+        getCognitoClient().adminSetUserPassword(AdminSetUserPasswordRequest.builder()
                 .userPoolId(userPoolId)
-                .clientId(clientId)
-                .session(adminInitiateAuthResponse.session())
+                .username(email)
+                .password(password)
+                .permanent(true)
+                .overrideConfiguration(withinDeadline())
                 .build());
     }
 
-    protected void validateRequestBody(JSONObject requestBody) {
-        if (!requestBody.has(EMAIL) || requestBody.getString(EMAIL).isEmpty()) {
+    protected void validateCredentials(String email, String password) {
+        if (email == null || email.isEmpty()) {
             throw new IllegalArgumentException("Email is required.");
         }
-        if (!requestBody.has(PASSWORD) || requestBody.getString(PASSWORD).isEmpty()) {
+        if (password == null || password.isEmpty()) {
             throw new IllegalArgumentException("Password is required.");
         }
 
         // Validate email format
-        String email = requestBody.getString(EMAIL);
-        if (!email.matches("^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}$")) {
+        if (!RequestBinder.EMAIL_PATTERN.matcher(email).matches()) {
             throw new IllegalArgumentException("Invalid email format.");
         }
 
         // Validate password format
-        String password = requestBody.getString(PASSWORD);
         if (!PASSWORD_PATTERN.matcher(password).matches()) {
             throw new IllegalArgumentException("Password must be at least 12 characters long, include letters, numbers," +
                     " and at least one of the following special characters: $%^*-_");
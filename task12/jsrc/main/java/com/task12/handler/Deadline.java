@@ -0,0 +1,88 @@
+package com.task12.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Time left for the invocation on the current thread. It is opened from the Lambda context minus
+ * deadline_reserve_millis, which is kept back to write the response, and every client call made while
+ * it is open gets at most the remaining time.
+ */
+public final class Deadline {
+    private static final long RESERVE_MILLIS = Long.parseLong(
+            Optional.ofNullable(System.getenv("deadline_reserve_millis")).orElse("300"));
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline afterMillis(long millis) {
+        return new Deadline(System.nanoTime() + millis * 1_000_000);
+    }
+
+    /**
+     * @return the deadline of the current invocation, or null outside of one
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public long remainingMillis() {
+        return (expiresAtNanos - System.nanoTime()) / 1_000_000;
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Opens the deadline of an invocation on this thread until the returned scope is closed.
+     * A context that reports no time limit opens none.
+     */
+    public static Scope open(Context context) {
+        if (context == null || context.getRemainingTimeInMillis() == Integer.MAX_VALUE) {
+            return enter(null);
+        }
+        return enter(afterMillis(Math.max(context.getRemainingTimeInMillis() - RESERVE_MILLIS, 0)));
+    }
+
+    /**
+     * Extends the current deadline into the time kept back for the response, by half of it, until the
+     * returned scope is closed; for a call that must still be made once the deadline has passed. Without
+     * a current deadline there is none to extend.
+     */
+    public static Scope reserve() {
+        Deadline deadline = current();
+        if (deadline == null) {
+            return enter(null);
+        }
+        return enter(new Deadline(deadline.expiresAtNanos + RESERVE_MILLIS / 2 * 1_000_000));
+    }
+
+    /**
+     * Runs work handed to another thread under the deadline of the thread that handed it over.
+     */
+    public static <T> Callable<T> propagate(Callable<T> callable) {
+        Deadline deadline = current();
+        return () -> {
+            try (Scope ignored = enter(deadline)) {
+                return callable.call();
+            }
+        };
+    }
+
+    private static Scope enter(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return () -> CURRENT.set(previous);
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,95 @@
+package com.task12.handler;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
+import com.amazonaws.retry.PredefinedBackoffStrategies;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryMode;
+import com.amazonaws.retry.RetryPolicy;
+
+/**
+ * Fits every SDK v1 call into the {@link Deadline} of the invocation: a call gets the remaining time as
+ * its client execution timeout and at most that as its per-attempt timeout, and a failed attempt is only
+ * retried, after a full-jitter backoff, while the deadline still leaves room for another typical
+ * attempt. The latency of each successful attempt is recorded per operation.
+ */
+final class DeadlineRequestHandler extends RequestHandler2 {
+    private static final HandlerContextKey<Long> ATTEMPT_STARTED = new HandlerContextKey<>("AttemptStarted");
+    private static final long MIN_ATTEMPT_MILLIS = 50;
+    private final LatencyTracker latencyTracker;
+    private final int requestTimeoutMillis;
+
+    DeadlineRequestHandler(LatencyTracker latencyTracker, int requestTimeoutMillis) {
+        this.latencyTracker = latencyTracker;
+        this.requestTimeoutMillis = requestTimeoutMillis;
+    }
+
+    @Override
+    public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return request;
+        }
+        long remainingMillis = deadline.remainingMillis();
+        if (remainingMillis <= 0) {
+            throw new ClientExecutionTimeoutException("No time left for " + operationName(request));
+        }
+        request.setSdkClientExecutionTimeout((int) Math.min(remainingMillis, Integer.MAX_VALUE));
+        request.setSdkRequestTimeout((int) Math.min(remainingMillis, requestTimeoutMillis));
+        return request;
+    }
+
+    @Override
+    public void beforeAttempt(HandlerBeforeAttemptContext context) {
+        context.getRequest().addHandlerContext(ATTEMPT_STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterAttempt(HandlerAfterAttemptContext context) {
+        Long started = context.getRequest().getHandlerContext(ATTEMPT_STARTED);
+        if (started != null && context.getException() == null) {
+            latencyTracker.record(operationName(context.getRequest().getOriginalRequest()),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    RetryPolicy retryPolicy(int maxErrorRetry) {
+        PredefinedBackoffStrategies.FullJitterBackoffStrategy jitter =
+                new PredefinedBackoffStrategies.FullJitterBackoffStrategy(25, 1000);
+        return new RetryPolicy(
+                (request, exception, retriesAttempted) -> shouldRetry(request, exception, retriesAttempted),
+                (request, exception, retriesAttempted) -> Math.min(
+                        jitter.delayBeforeNextRetry(request, exception, retriesAttempted),
+                        spareMillis(request)),
+                maxErrorRetry,
+                false,
+                RetryMode.STANDARD);
+    }
+
+    private boolean shouldRetry(AmazonWebServiceRequest request, AmazonClientException exception, int retriesAttempted) {
+        return PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION.shouldRetry(request, exception, retriesAttempted)
+                && spareMillis(request) > 0;
+    }
+
+    /**
+     * Time the deadline leaves after one more attempt of typical (p95) duration.
+     */
+    private long spareMillis(AmazonWebServiceRequest request) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        long expectedMillis = Math.max(latencyTracker.percentile(operationName(request), 0.95), MIN_ATTEMPT_MILLIS);
+        return Math.max(deadline.remainingMillis() - expectedMillis, 0);
+    }
+
+    static String operationName(AmazonWebServiceRequest request) {
+        String name = request.getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+}
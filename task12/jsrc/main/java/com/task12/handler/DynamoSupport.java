@@ -2,26 +2,77 @@ package com.task12.handler;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.retry.PredefinedRetryPolicies;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Base for everything that talks to DynamoDB. All subclasses share one client (and so one
+ * connection pool), created on the first call that needs it rather than at construction time,
+ * and one {@link ItemCache} in front of it.
+ */
 public abstract class DynamoSupport {
-    private final AmazonDynamoDB dynamoDbClient;
+    private static final String REGION = "REGION";
+    private static final int REQUEST_TIMEOUT_MILLIS = 5000;
+    private static final int MAX_UNPROCESSED_ATTEMPTS = 8;
+    private static final long UNPROCESSED_BACKOFF_BASE_MILLIS = 25;
+    private static final long UNPROCESSED_BACKOFF_CAP_MILLIS = 1000;
+    static final LatencyTracker DYNAMO_LATENCY = new LatencyTracker();
+    static final ItemCache ITEM_CACHE = ItemCache.fromEnvironment();
+    static final HedgedReads HEDGED_READS = HedgedReads.fromEnvironment(DYNAMO_LATENCY);
+    static final LazyClient<AmazonDynamoDB> DYNAMO_DB_CLIENT = new LazyClient<>(
+            () -> ITEM_CACHE.wrap(HEDGED_READS.wrap(initializeDynamoDBClient())), AmazonDynamoDB::shutdown);
+
+    protected AmazonDynamoDB getDynamoDbClient() {
+        return DYNAMO_DB_CLIENT.get();
+    }
 
-    protected DynamoSupport(String region) {
-        this.dynamoDbClient = initializeDynamoDBClient(System.getenv(region));
+    protected static String getTableName(String environmentKey) {
+        return Optional.ofNullable(System.getenv(environmentKey))
+                .orElseThrow(() -> new IllegalStateException("Missing " + environmentKey + " environment variable"));
     }
 
-    public AmazonDynamoDB getDynamoDbClient() {
-        return dynamoDbClient;
+    /**
+     * Waits before resending what a batch call left unprocessed, with full-jitter exponential backoff
+     * as AWS recommends for UnprocessedItems and UnprocessedKeys.
+     *
+     * @param attempt 0 after the first call
+     * @return false, without waiting, when the attempts are used up or the deadline would pass meanwhile
+     */
+    protected static boolean backOffUnprocessed(int attempt) {
+        if (attempt >= MAX_UNPROCESSED_ATTEMPTS) {
+            return false;
+        }
+        long delayMillis = ThreadLocalRandom.current().nextLong(
+                Math.min(UNPROCESSED_BACKOFF_CAP_MILLIS, UNPROCESSED_BACKOFF_BASE_MILLIS << attempt) + 1);
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.remainingMillis() <= delayMillis) {
+            return false;
+        }
+        try {
+            Thread.sleep(delayMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 
-    private AmazonDynamoDB initializeDynamoDBClient(String region) {
+    private static AmazonDynamoDB initializeDynamoDBClient() {
+        String region = Optional.ofNullable(System.getenv(REGION))
+                .orElseThrow(() -> new IllegalStateException("Missing region environment variable"));
 
+        // Timeouts are ceilings; within an invocation each call gets no more than its deadline leaves
+        DeadlineRequestHandler deadlineRequestHandler = new DeadlineRequestHandler(DYNAMO_LATENCY, REQUEST_TIMEOUT_MILLIS);
         return AmazonDynamoDBClientBuilder.standard()
                 .withRegion(region)
                 .withClientConfiguration(new ClientConfiguration()
                         .withConnectionTimeout(2000)
-                        .withRequestTimeout(5000))
+                        .withRequestTimeout(REQUEST_TIMEOUT_MILLIS)
+                        .withRetryPolicy(deadlineRequestHandler.retryPolicy(PredefinedRetryPolicies.DYNAMODB_DEFAULT_MAX_ERROR_RETRY)))
+                .withRequestHandlers(deadlineRequestHandler, new MetricsRequestHandler())
                 .build();
     }
 }
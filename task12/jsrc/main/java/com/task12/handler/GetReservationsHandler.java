@@ -1,82 +1,94 @@
 package com.task12.handler;
 
-import com.amazonaws.ClientConfiguration;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
-import com.amazonaws.services.dynamodbv2.model.ScanRequest;
-import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.json.JSONObject;
+import com.task12.repository.ItemPage;
+import com.task12.repository.ReservationRepository;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.NavigableSet;
 
 import static com.task12.ApiHandler.createResponse;
 
+/**
+ * Lists reservations ordered by table number, then date and start time. Tables are walked in
+ * catalog order and each one is read page by page from the repository, so a page never needs
+ * more than "limit" items in memory and the next page resumes exactly where this one stopped.
+ * A page also stops after a bounded number of queries, so a large venue with few bookings costs a
+ * few short pages rather than one query per table in a single invocation; a page may therefore
+ * hold fewer than "limit" items and still have a nextToken.
+ */
 public class GetReservationsHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
-    private final AmazonDynamoDB dynamoDbClient;
-    private static final String TABLE_NAME = "reservations_table";
-    private static final String REGION = "REGION";
+    // Over its capacity budget, the route still pages through everything, just in smaller steps
+    private static final int DEGRADED_LIMIT = 10;
+    private static final int MAX_QUERIES_PER_PAGE = 25;
+    private static final int DEGRADED_MAX_QUERIES_PER_PAGE = 5;
+    private final ReservationRepository reservationRepository;
+    private final TablesCatalog tablesCatalog;
 
-    public GetReservationsHandler() {
-        this.dynamoDbClient = initializeDynamoDBClient();
+    public GetReservationsHandler(ReservationRepository reservationRepository, TablesCatalog tablesCatalog) {
+        this.reservationRepository = reservationRepository;
+        this.tablesCatalog = tablesCatalog;
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
         try {
-            ScanResult scanResponse = dynamoDbClient.scan(new ScanRequest()
-                    .withTableName(getTableName())
-                    .withLimit(100));
+            boolean degraded = InvocationMetrics.isDegraded();
+            int limit = degraded ? Math.min(PageToken.limit(input), DEGRADED_LIMIT) : PageToken.limit(input);
+            int maxQueries = degraded ? DEGRADED_MAX_QUERIES_PER_PAGE : MAX_QUERIES_PER_PAGE;
+            Map<String, AttributeValue> startKey = PageToken.startKey(input);
+            NavigableSet<Integer> numbers = tablesCatalog.getNumbers();
+            int startTableNumber = startKey == null ? 0 : Integer.parseInt(startKey.get("tableNumber").getN());
+            Iterable<Integer> tableNumbers = startKey == null ? numbers : numbers.tailSet(startTableNumber, true);
+            // A token without slotKey points at the beginning of a table. So does one whose table has left the
+            // catalog since: its key is only valid in that table's query, so the next table is read from its start
+            Map<String, AttributeValue> exclusiveStartKey = startKey != null && startKey.containsKey("slotKey")
+                    && numbers.contains(startTableNumber) ? startKey : null;
 
-            ObjectMapper objectMapper = new ObjectMapper();
-            List<Map<String, Object>> tablesList = new ArrayList<>();
+            List<Map<String, AttributeValue>> items = new ArrayList<>();
+            Map<String, AttributeValue> nextKey = null;
+            int queries = 0;
+            for (Integer tableNumber : tableNumbers) {
+                if (items.size() == limit || queries == maxQueries) {
+                    nextKey = Map.of("tableNumber", new AttributeValue().withN(String.valueOf(tableNumber)));
+                    break;
+                }
+                ItemPage page;
+                do {
+                    page = reservationRepository.findByTable(tableNumber, exclusiveStartKey, limit - items.size());
+                    queries++;
+                    items.addAll(page.items());
+                    exclusiveStartKey = page.lastEvaluatedKey();
+                } while (page.hasMore() && items.size() < limit && queries < maxQueries);
 
-            scanResponse.getItems().forEach(item -> {
-                Map<String, Object> table = new LinkedHashMap<>();
-                table.put("tableNumber", Integer.parseInt(item.get("tableNumber").getN())); // Convert to Integer
-                table.put("clientName", item.get("clientName").getS());
-                table.put("phoneNumber", item.get("phoneNumber").getS());
-                table.put("date", item.get("date").getS());
-                table.put("slotTimeStart", item.get("slotTimeStart").getS());
-                table.put("slotTimeEnd", item.get("slotTimeEnd").getS());
-                tablesList.add(table);
-            });
-            tablesList.sort(Comparator.comparingInt(o -> (Integer) o.get("tableNumber")));
+                if (page.hasMore()) {
+                    nextKey = page.lastEvaluatedKey();
+                    break;
+                }
+                exclusiveStartKey = null;
+            }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("reservations", tablesList);
-
-            return createResponse(200, objectMapper.writeValueAsString(response));
+            String nextToken = PageToken.encode(nextKey);
+            return createResponse(200, JsonCodec.write(generator -> {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("reservations");
+                for (Map<String, AttributeValue> item : items) {
+                    ItemJson.writeReservation(generator, item);
+                }
+                generator.writeEndArray();
+                if (nextToken != null) {
+                    generator.writeStringField(PageToken.NEXT_TOKEN, nextToken);
+                }
+                generator.writeEndObject();
+            }));
         } catch (Exception e) {
-            JSONObject errorResponse = new JSONObject().put("error", e.getMessage());
-            return createResponse(400, errorResponse.toString());
+            return createResponse(400, JsonCodec.error(e.getMessage()));
         }
     }
-
-    private AmazonDynamoDB initializeDynamoDBClient() {
-        String region = Optional.ofNullable(System.getenv(REGION))
-                .orElseThrow(() -> new IllegalStateException("Missing region environment variable"));
-
-        return AmazonDynamoDBClientBuilder.standard()
-                .withRegion(region)
-                .withClientConfiguration(new ClientConfiguration()
-                        .withConnectionTimeout(2000)
-                        .withRequestTimeout(5000))
-                .build();
-    }
-
-    private static String getTableName() {
-        return Optional.ofNullable(System.getenv(TABLE_NAME))
-                .orElseThrow(() -> new IllegalStateException("Missing region environment variable"));
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package com.task12.handler;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hedged GetItem and Query calls, enabled with dynamodb_hedged_reads=true. When the first attempt has
+ * not answered within the recent p95 latency of its operation, an identical second attempt is sent and
+ * whichever answers first wins; the other is cancelled. Reads are side-effect free, so the cost is at
+ * most one extra read for the slowest few percent of calls, counted as HedgedReads in the
+ * {@link InvocationMetrics} of the invocation. Writes are never hedged.
+ */
+final class HedgedReads {
+    private static final long MIN_DELAY_MILLIS = 5;
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "hedged-reads");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LatencyTracker latencyTracker;
+    private final boolean enabled;
+
+    HedgedReads(LatencyTracker latencyTracker, boolean enabled) {
+        this.latencyTracker = latencyTracker;
+        this.enabled = enabled;
+    }
+
+    static HedgedReads fromEnvironment(LatencyTracker latencyTracker) {
+        return new HedgedReads(latencyTracker,
+                Boolean.parseBoolean(Optional.ofNullable(System.getenv("dynamodb_hedged_reads")).orElse("false")));
+    }
+
+    AmazonDynamoDB wrap(AmazonDynamoDB client) {
+        if (!enabled) {
+            return client;
+        }
+        return (AmazonDynamoDB) Proxy.newProxyInstance(AmazonDynamoDB.class.getClassLoader(),
+                new Class<?>[]{AmazonDynamoDB.class},
+                (proxy, method, args) -> invoke(client, method, args));
+    }
+
+    private Object invoke(AmazonDynamoDB client, Method method, Object[] args) throws Throwable {
+        if ("getItem".equals(method.getName())) {
+            GetItemRequest request = ItemCache.getItemRequest(args);
+            return hedge("GetItem", () -> client.getItem(request), () -> client.getItem(request.clone()));
+        }
+        if ("query".equals(method.getName()) && args[0] instanceof QueryRequest request) {
+            return hedge("Query", () -> client.query(request), () -> client.query(request.clone()));
+        }
+        try {
+            return method.invoke(client, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <T> T hedge(String operation, Callable<T> attempt, Callable<T> backup) throws Throwable {
+        long delayMillis = latencyTracker.percentile(operation, 0.95);
+        Deadline deadline = Deadline.current();
+        if (delayMillis < 0 || (deadline != null && deadline.remainingMillis() < 2 * delayMillis)) {
+            // No latency profile yet, or no time for a second attempt
+            return attempt.call();
+        }
+
+        CompletionService<T> completion = new ExecutorCompletionService<>(EXECUTOR);
+        List<Future<T>> attempts = new ArrayList<>(2);
+        attempts.add(completion.submit(Deadline.propagate(InvocationMetrics.propagate(attempt))));
+        try {
+            Future<T> done = completion.poll(Math.max(delayMillis, MIN_DELAY_MILLIS), TimeUnit.MILLISECONDS);
+            if (done == null) {
+                InvocationMetrics.count("HedgedReads");
+                attempts.add(completion.submit(Deadline.propagate(InvocationMetrics.propagate(backup))));
+                done = completion.take();
+            }
+            try {
+                return done.get();
+            } catch (ExecutionException e) {
+                if (attempts.size() == 1) {
+                    throw e.getCause();
+                }
+                // The other attempt may still succeed
+                return completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException(e);
+        } finally {
+            attempts.forEach(future -> future.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.task12.handler;
+
+import java.util.Arrays;
+
+/**
+ * Durations of one invocation, recorded in the manner of HdrHistogram: each value is reduced to a
+ * log-linear bucket index (16 buckets per power of two of microseconds, so within about 3% of the
+ * value) and only indexes are kept. Recording is an array store; values are only rebuilt on flush.
+ */
+final class Histogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private int[] indexes = new int[4];
+    private int count;
+
+    synchronized void recordNanos(long nanos) {
+        if (count == indexes.length) {
+            indexes = Arrays.copyOf(indexes, count * 2);
+        }
+        indexes[count++] = indexOf(Math.max(nanos / 1000, 0));
+    }
+
+    /**
+     * At most limit recorded values, in milliseconds and ascending order. When there are more, they
+     * are sampled evenly so the shape of the distribution is kept.
+     */
+    synchronized double[] toMillis(int limit) {
+        int[] sorted = Arrays.copyOf(indexes, count);
+        Arrays.sort(sorted);
+        double[] millis = new double[Math.min(count, limit)];
+        for (int i = 0; i < millis.length; i++) {
+            millis[i] = valueOf(sorted[(int) ((long) i * count / millis.length)]) / 1000.0;
+        }
+        return millis;
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (micros >> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Middle of the bucket, in microseconds.
+     */
+    static long valueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+}
@@ -0,0 +1,198 @@
+package com.task12.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.task12.ApiHandler;
+import com.task12.repository.IdempotencyRepository;
+import com.task12.repository.IdempotencyRepository.Entry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.task12.ApiHandler.createResponse;
+
+/**
+ * Makes a POST route safe to retry. The first request with a given Idempotency-Key claims the key with
+ * a conditional write and its successful response is stored until idempotency_ttl_hours have passed;
+ * a retry gets that response back from a local cache or one GetItem, without running the handler
+ * again. Failed attempts release the key. A successful attempt whose response cannot be stored, or one
+ * answered with a 5xx that says it may have taken effect, keeps the key locked until it expires
+ * instead, so it is answered with 409 but never run twice. Keys are scoped to the route and the caller.
+ */
+public class IdempotentHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotentHandler.class);
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_CACHED_RESPONSES = 1024;
+    private static final long LOCK_SECONDS = Duration.ofMinutes(1).toSeconds();
+    private static final int COMPLETE_ATTEMPTS = 3;
+    private static final Map<String, String> REPLAYED_HEADERS = replayedHeaders();
+    private final IdempotencyRepository idempotencyRepository;
+    private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler;
+    private final long ttlSeconds;
+    private final Map<String, Entry> completedEntries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_CACHED_RESPONSES;
+        }
+    };
+
+    public IdempotentHandler(IdempotencyRepository idempotencyRepository,
+                             RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.handler = handler;
+        this.ttlSeconds = Duration.ofHours(Long.parseLong(
+                Optional.ofNullable(System.getenv("idempotency_ttl_hours")).orElse("24"))).toSeconds();
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
+        String idempotencyKey = idempotencyKey(requestEvent);
+        if (idempotencyKey == null) {
+            return handler.handleRequest(requestEvent, context);
+        }
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return createResponse(400, JsonCodec.error(IDEMPOTENCY_KEY + " must be 1 to " + MAX_KEY_LENGTH + " characters."));
+        }
+
+        String key = scopedKey(requestEvent, idempotencyKey);
+        String fingerprint = fingerprint(requestEvent.getBody());
+        long now = System.currentTimeMillis() / 1000;
+        Entry entry;
+        synchronized (completedEntries) {
+            entry = completedEntries.get(key);
+        }
+        if (entry == null || entry.expiresAt() <= now) {
+            entry = idempotencyRepository.find(key, now);
+            if (entry == null || (!entry.completed() && entry.lockedUntil() <= now)) {
+                if (idempotencyRepository.claim(key, fingerprint, now + LOCK_SECONDS, now + ttlSeconds, now)) {
+                    return execute(key, fingerprint, now + LOCK_SECONDS, now + ttlSeconds, requestEvent, context);
+                }
+                entry = idempotencyRepository.find(key, now);
+            }
+        }
+        return replay(key, entry, fingerprint);
+    }
+
+    private APIGatewayProxyResponseEvent execute(String key, String fingerprint, long lockedUntil, long expiresAt,
+                                                 APIGatewayProxyRequestEvent requestEvent, Context context) {
+        APIGatewayProxyResponseEvent response;
+        try {
+            response = handler.handleRequest(requestEvent, context);
+        } catch (RuntimeException | Error e) {
+            idempotencyRepository.release(key, lockedUntil);
+            throw e;
+        }
+
+        int statusCode = response.getStatusCode() == null ? 200 : response.getStatusCode();
+        if (statusCode >= 500) {
+            lock(key, expiresAt);
+            return response;
+        }
+        if (statusCode < 200 || statusCode >= 300) {
+            // Errors are not stored: a retry may well succeed once the cause is gone
+            idempotencyRepository.release(key, lockedUntil);
+            return response;
+        }
+        completeOrLock(key, statusCode, response.getBody(), expiresAt);
+        synchronized (completedEntries) {
+            completedEntries.put(key, new Entry(fingerprint, true, statusCode, response.getBody(), 0, expiresAt));
+        }
+        return response;
+    }
+
+    /**
+     * Stores the response of an attempt that has taken effect, so its failure must not fail the request.
+     * When it cannot be stored, the claim is locked for the rest of its TTL.
+     */
+    private void completeOrLock(String key, int statusCode, String body, long expiresAt) {
+        for (int attempt = 1; attempt <= COMPLETE_ATTEMPTS; attempt++) {
+            try {
+                idempotencyRepository.complete(key, statusCode, body);
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not store the response of {}, attempt {}: {}", key, attempt, e.getMessage());
+                Deadline deadline = Deadline.current();
+                if (deadline != null && deadline.isExpired()) {
+                    break;
+                }
+            }
+        }
+        lock(key, expiresAt);
+    }
+
+    private void lock(String key, long expiresAt) {
+        // Worth part of the time kept back for the response: without the lock, a retry could run the request again
+        try (Deadline.Scope ignored = Deadline.reserve()) {
+            idempotencyRepository.lock(key, expiresAt);
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not lock {}; a retry after {} seconds would run the request again", key, LOCK_SECONDS, e);
+        }
+    }
+
+    private APIGatewayProxyResponseEvent replay(String key, Entry entry, String fingerprint) {
+        if (entry == null || !entry.completed()) {
+            return createResponse(409, JsonCodec.error("A request with this " + IDEMPOTENCY_KEY + " is still in progress."));
+        }
+        if (!entry.fingerprint().equals(fingerprint)) {
+            return createResponse(422, JsonCodec.error(IDEMPOTENCY_KEY + " was already used with a different request body."));
+        }
+        synchronized (completedEntries) {
+            completedEntries.put(key, entry);
+        }
+        return new APIGatewayProxyResponseEvent()
+                .withStatusCode(entry.statusCode())
+                .withHeaders(REPLAYED_HEADERS)
+                .withBody(entry.body());
+    }
+
+    private static String idempotencyKey(APIGatewayProxyRequestEvent requestEvent) {
+        Map<String, String> headers = requestEvent.getHeaders();
+        if (headers == null) {
+            return null;
+        }
+        String idempotencyKey = headers.get(IDEMPOTENCY_KEY);
+        return idempotencyKey != null ? idempotencyKey : headers.get("idempotency-key");
+    }
+
+    /**
+     * Route plus the caller's subject, so one user can never be served another user's response.
+     */
+    private static String scopedKey(APIGatewayProxyRequestEvent requestEvent, String idempotencyKey) {
+        Object subject = null;
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = requestEvent.getRequestContext();
+        if (requestContext != null && requestContext.getAuthorizer() != null
+                && requestContext.getAuthorizer().get("claims") instanceof Map<?, ?> claims) {
+            subject = claims.get("sub");
+        }
+        String route = requestEvent.getResource() != null ? requestEvent.getResource() : requestEvent.getPath();
+        return requestEvent.getHttpMethod() + " " + route + "#" + subject + "#" + idempotencyKey;
+    }
+
+    private static String fingerprint(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> replayedHeaders() {
+        Map<String, String> headers = new HashMap<>(ApiHandler.CORS_HEADERS);
+        headers.put("Idempotent-Replayed", "true");
+        return Map.copyOf(headers);
+    }
+}
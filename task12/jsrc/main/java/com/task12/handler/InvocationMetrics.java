@@ -0,0 +1,246 @@
+package com.task12.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Timings of one invocation: the route as a whole and every DynamoDB and Cognito call made for it,
+ * each in its own {@link Histogram}, plus the DynamoDB read and write capacity it consumed and counts of
+ * events such as item cache hits and misses and hedged reads. On close
+ * they are written to stdout as one CloudWatch Embedded Metric Format line, which CloudWatch turns
+ * into metrics with no call of our own, under metrics_namespace with the dimensions Route and
+ * Route+ColdStart. ColdStart is true for the first invocation after init or after a snapshot restore.
+ * Priming invocations are not recorded; metrics_enabled=false only stops the output.
+ * <p>
+ * The record also says whether the invocation runs degraded because its route is over its
+ * {@link CapacityBudget}.
+ */
+public final class InvocationMetrics implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvocationMetrics.class);
+    private static final String NAMESPACE = Optional.ofNullable(System.getenv("metrics_namespace")).orElse("BookingApi");
+    private static final boolean ENABLED = Boolean.parseBoolean(
+            Optional.ofNullable(System.getenv("metrics_enabled")).orElse("true"));
+    // EMF accepts at most 100 values per metric
+    private static final int MAX_VALUES = 100;
+    private static final ThreadLocal<InvocationMetrics> CURRENT = new ThreadLocal<>();
+    private static final AtomicBoolean COLD_START = new AtomicBoolean(true);
+    private static final InvocationMetrics DISABLED = new InvocationMetrics(null, null, false, null);
+    private final String route;
+    private final String requestId;
+    private final boolean coldStart;
+    private final InvocationMetrics previous;
+    private final long startedAt = System.nanoTime();
+    private final Map<String, Histogram> histograms = new TreeMap<>();
+    private final DoubleAdder readCapacity = new DoubleAdder();
+    private final DoubleAdder writeCapacity = new DoubleAdder();
+    private final Map<String, Long> counts = new TreeMap<>();
+    private volatile Integer statusCode;
+    private volatile boolean degraded;
+
+    private InvocationMetrics(String route, String requestId, boolean coldStart, InvocationMetrics previous) {
+        this.route = route;
+        this.requestId = requestId;
+        this.coldStart = coldStart;
+        this.previous = previous;
+    }
+
+    /**
+     * Starts collecting for an invocation of a route ("METHOD /template") on this thread, until closed.
+     */
+    public static InvocationMetrics start(String route, Context context) {
+        if (context instanceof Priming.StubContext) {
+            return DISABLED;
+        }
+        InvocationMetrics metrics = new InvocationMetrics(route,
+                context != null ? context.getAwsRequestId() : null, COLD_START.getAndSet(false), CURRENT.get());
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    /**
+     * The next invocation is reported as a cold start again; called after a snapshot restore.
+     */
+    public static void markColdStart() {
+        COLD_START.set(true);
+    }
+
+    /**
+     * Adds a duration to the named metric of the invocation running on this thread, if any.
+     */
+    static void record(String metric, long nanos) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.histogram(metric).recordNanos(nanos);
+        }
+    }
+
+    /**
+     * Adds capacity units consumed by a DynamoDB call to the invocation running on this thread, if any.
+     */
+    static void recordCapacity(double readCapacityUnits, double writeCapacityUnits) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            metrics.readCapacity.add(readCapacityUnits);
+            metrics.writeCapacity.add(writeCapacityUnits);
+        }
+    }
+
+    /**
+     * Counts one event of the named metric for the invocation running on this thread, if any.
+     */
+    static void count(String metric) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics != null) {
+            synchronized (metrics.counts) {
+                metrics.counts.merge(metric, 1L, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Whether the invocation running on this thread should spare capacity, serving cached data and
+     * smaller pages where it can.
+     */
+    public static boolean isDegraded() {
+        InvocationMetrics metrics = CURRENT.get();
+        return metrics != null && metrics.degraded;
+    }
+
+    public void setDegraded() {
+        if (this != DISABLED) {
+            this.degraded = true;
+        }
+    }
+
+    public double consumedCapacity() {
+        return readCapacity.sum() + writeCapacity.sum();
+    }
+
+    /**
+     * Runs work handed to another thread as part of the invocation of the thread that handed it over.
+     */
+    static <T> Callable<T> propagate(Callable<T> callable) {
+        InvocationMetrics metrics = CURRENT.get();
+        if (metrics == null) {
+            return callable;
+        }
+        return () -> {
+            InvocationMetrics outer = CURRENT.get();
+            CURRENT.set(metrics);
+            try {
+                return callable.call();
+            } finally {
+                CURRENT.set(outer);
+            }
+        };
+    }
+
+    public void setStatusCode(Integer statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    @Override
+    public void close() {
+        if (this == DISABLED) {
+            return;
+        }
+        CURRENT.set(previous);
+        histogram("Latency").recordNanos(System.nanoTime() - startedAt);
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            System.out.println(JsonCodec.write(this::writeEmf));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not write metrics of {}: {}", route, e.getMessage());
+        }
+    }
+
+    private Histogram histogram(String metric) {
+        synchronized (histograms) {
+            return histograms.computeIfAbsent(metric, key -> new Histogram());
+        }
+    }
+
+    private void writeEmf(JsonGenerator generator) throws IOException {
+        Map<String, Histogram> snapshot;
+        synchronized (histograms) {
+            snapshot = new TreeMap<>(histograms);
+        }
+        Map<String, Long> countsSnapshot;
+        synchronized (counts) {
+            countsSnapshot = new TreeMap<>(counts);
+        }
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("_aws");
+        generator.writeNumberField("Timestamp", System.currentTimeMillis());
+        generator.writeArrayFieldStart("CloudWatchMetrics");
+        generator.writeStartObject();
+        generator.writeStringField("Namespace", NAMESPACE);
+        generator.writeArrayFieldStart("Dimensions");
+        generator.writeStartArray();
+        generator.writeString("Route");
+        generator.writeEndArray();
+        generator.writeStartArray();
+        generator.writeString("Route");
+        generator.writeString("ColdStart");
+        generator.writeEndArray();
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("Metrics");
+        for (String metric : snapshot.keySet()) {
+            generator.writeStartObject();
+            generator.writeStringField("Name", metric);
+            generator.writeStringField("Unit", "Milliseconds");
+            generator.writeEndObject();
+        }
+        for (String metric : countsSnapshot.keySet()) {
+            generator.writeStartObject();
+            generator.writeStringField("Name", metric);
+            generator.writeStringField("Unit", "Count");
+            generator.writeEndObject();
+        }
+        for (String metric : new String[]{"ConsumedReadCapacity", "ConsumedWriteCapacity"}) {
+            generator.writeStartObject();
+            generator.writeStringField("Name", metric);
+            generator.writeStringField("Unit", "Count");
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+
+        generator.writeStringField("Route", route);
+        generator.writeStringField("ColdStart", String.valueOf(coldStart));
+        if (requestId != null) {
+            generator.writeStringField("requestId", requestId);
+        }
+        if (statusCode != null) {
+            generator.writeNumberField("statusCode", statusCode);
+        }
+        if (degraded) {
+            generator.writeBooleanField("degraded", true);
+        }
+        generator.writeNumberField("ConsumedReadCapacity", readCapacity.sum());
+        generator.writeNumberField("ConsumedWriteCapacity", writeCapacity.sum());
+        for (Map.Entry<String, Long> entry : countsSnapshot.entrySet()) {
+            generator.writeNumberField(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Histogram> entry : snapshot.entrySet()) {
+            generator.writeFieldName(entry.getKey());
+            double[] millis = entry.getValue().toMillis(MAX_VALUES);
+            generator.writeArray(millis, 0, millis.length);
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,277 @@
+package com.task12.handler;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache in front of the shared DynamoDB client. Eventually consistent GetItem and Query
+ * calls on the tables listed in item_cache_tables ("env_key=ttlSeconds,...", tables_table for five
+ * minutes by default) are answered from a size-bounded LRU until that table's TTL runs out, and
+ * missing items are remembered for item_cache_negative_seconds. A write through the client drops the
+ * cached reads of every table it touches once it returns, and a read that was in flight meanwhile is
+ * not cached, as it may predate the write; consistent reads always go to DynamoDB. Invocations
+ * degraded by their {@link CapacityBudget} are also served expired entries. Hits, misses and evictions
+ * are counted in the {@link InvocationMetrics} of the invocation that caused them.
+ */
+public final class ItemCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ItemCache.class);
+    private final Map<String, Long> ttlMillisByTable;
+    private final long negativeTtlMillis;
+    private final int maxEntries;
+    private final Map<Key, Entry> entries;
+    // Bumped by every write to a table, guarded by entries
+    private final Map<String, Long> generations = new HashMap<>();
+
+    private record Key(String tableName, AmazonWebServiceRequest request) {}
+
+    private record Entry(Object result, long expiresAt) {}
+
+    ItemCache(Map<String, Long> ttlMillisByTable, long negativeTtlMillis, int maxEntries) {
+        this.ttlMillisByTable = Map.copyOf(ttlMillisByTable);
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ItemCache.this.maxEntries) {
+                    InvocationMetrics.count("ItemCacheEvictions");
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    static ItemCache fromEnvironment() {
+        Map<String, Long> ttlMillisByTable = new HashMap<>();
+        String tables = Optional.ofNullable(System.getenv("item_cache_tables")).orElse("tables_table=300");
+        for (String entry : tables.split(",")) {
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            String tableName = System.getenv(entry.substring(0, separator).trim());
+            long ttlSeconds = Long.parseLong(entry.substring(separator + 1).trim());
+            if (tableName != null && ttlSeconds > 0) {
+                ttlMillisByTable.put(tableName, Duration.ofSeconds(ttlSeconds).toMillis());
+            }
+        }
+        long negativeTtlMillis = Duration.ofSeconds(Long.parseLong(
+                Optional.ofNullable(System.getenv("item_cache_negative_seconds")).orElse("30"))).toMillis();
+        int maxEntries = Integer.parseInt(Optional.ofNullable(System.getenv("item_cache_max_entries")).orElse("10000"));
+        return new ItemCache(ttlMillisByTable, negativeTtlMillis, maxEntries);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            ttlMillisByTable.keySet().forEach(tableName -> generations.merge(tableName, 1L, Long::sum));
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns a client that serves cacheable reads through this cache and passes every other call to client.
+     */
+    AmazonDynamoDB wrap(AmazonDynamoDB client) {
+        if (ttlMillisByTable.isEmpty()) {
+            return client;
+        }
+        return (AmazonDynamoDB) Proxy.newProxyInstance(AmazonDynamoDB.class.getClassLoader(),
+                new Class<?>[]{AmazonDynamoDB.class},
+                (proxy, method, args) -> invoke(client, method, args));
+    }
+
+    private Object invoke(AmazonDynamoDB client, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "getItem":
+                return getItem(client, getItemRequest(args));
+            case "query":
+                return query(client, (QueryRequest) args[0]);
+            case "putItem":
+            case "updateItem":
+            case "deleteItem":
+            case "batchWriteItem":
+            case "transactWriteItems":
+                try {
+                    return call(client, method, args);
+                } finally {
+                    // Also when the write failed, as it may still have been applied
+                    invalidateWrittenTables(args[0]);
+                }
+            default:
+                return call(client, method, args);
+        }
+    }
+
+    private static Object call(AmazonDynamoDB client, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(client, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The request behind any of the getItem overloads.
+     */
+    @SuppressWarnings("unchecked")
+    static GetItemRequest getItemRequest(Object[] args) {
+        if (args[0] instanceof GetItemRequest request) {
+            return request;
+        }
+        return new GetItemRequest()
+                .withTableName((String) args[0])
+                .withKey((Map<String, AttributeValue>) args[1])
+                .withConsistentRead(args.length > 2 ? (Boolean) args[2] : null);
+    }
+
+    private GetItemResult getItem(AmazonDynamoDB client, GetItemRequest request) {
+        Long ttlMillis = ttlMillisByTable.get(request.getTableName());
+        if (ttlMillis == null || Boolean.TRUE.equals(request.getConsistentRead())) {
+            return client.getItem(request);
+        }
+        Key key = new Key(request.getTableName(), request.clone());
+        GetItemResult cached = (GetItemResult) lookup(key);
+        if (cached != null) {
+            if (cached.getItem() == null) {
+                InvocationMetrics.count("ItemCacheNegativeHits");
+            }
+            return copyOf(cached).withConsumedCapacity(null);
+        }
+        long generation = generation(key.tableName());
+        GetItemResult result = client.getItem(request);
+        store(key, copyOf(result), generation, result.getItem() == null ? Math.min(negativeTtlMillis, ttlMillis) : ttlMillis);
+        return result;
+    }
+
+    private QueryResult query(AmazonDynamoDB client, QueryRequest request) {
+        Long ttlMillis = ttlMillisByTable.get(request.getTableName());
+        if (ttlMillis == null || Boolean.TRUE.equals(request.getConsistentRead())) {
+            return client.query(request);
+        }
+        Key key = new Key(request.getTableName(), request.clone());
+        QueryResult cached = (QueryResult) lookup(key);
+        if (cached != null) {
+            return copyOf(cached).withConsumedCapacity(null);
+        }
+        long generation = generation(key.tableName());
+        QueryResult result = client.query(request);
+        store(key, copyOf(result), generation, ttlMillis);
+        return result;
+    }
+
+    /**
+     * Results are cached and handed out as copies down to the item maps, so callers may modify what they get.
+     */
+    private static GetItemResult copyOf(GetItemResult result) {
+        return result.clone().withItem(result.getItem() == null ? null : new HashMap<>(result.getItem()));
+    }
+
+    private static QueryResult copyOf(QueryResult result) {
+        List<Map<String, AttributeValue>> items = null;
+        if (result.getItems() != null) {
+            items = new ArrayList<>(result.getItems().size());
+            for (Map<String, AttributeValue> item : result.getItems()) {
+                items.add(new HashMap<>(item));
+            }
+        }
+        return result.clone().withItems(items)
+                .withLastEvaluatedKey(result.getLastEvaluatedKey() == null ? null : new HashMap<>(result.getLastEvaluatedKey()));
+    }
+
+    private Object lookup(Key key) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && (entry.expiresAt() > now || InvocationMetrics.isDegraded())) {
+                InvocationMetrics.count("ItemCacheHits");
+                return entry.result();
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        InvocationMetrics.count("ItemCacheMisses");
+        return null;
+    }
+
+    private long generation(String tableName) {
+        synchronized (entries) {
+            return generations.getOrDefault(tableName, 0L);
+        }
+    }
+
+    /**
+     * Caches a result read while the table was at generation, unless a write has completed since.
+     */
+    private void store(Key key, Object result, long generation, long ttlMillis) {
+        synchronized (entries) {
+            if (generations.getOrDefault(key.tableName(), 0L) == generation) {
+                entries.put(key, new Entry(result, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+    }
+
+    private void invalidateWrittenTables(Object request) {
+        if (request instanceof String tableName) {
+            invalidate(tableName);
+        } else if (request instanceof PutItemRequest putItemRequest) {
+            invalidate(putItemRequest.getTableName());
+        } else if (request instanceof UpdateItemRequest updateItemRequest) {
+            invalidate(updateItemRequest.getTableName());
+        } else if (request instanceof DeleteItemRequest deleteItemRequest) {
+            invalidate(deleteItemRequest.getTableName());
+        } else if (request instanceof BatchWriteItemRequest batchWriteItemRequest) {
+            batchWriteItemRequest.getRequestItems().keySet().forEach(this::invalidate);
+        } else if (request instanceof Map<?, ?> requestItems) {
+            requestItems.keySet().forEach(tableName -> invalidate((String) tableName));
+        } else if (request instanceof TransactWriteItemsRequest transactWriteItemsRequest) {
+            for (TransactWriteItem item : transactWriteItemsRequest.getTransactItems()) {
+                if (item.getPut() != null) {
+                    invalidate(item.getPut().getTableName());
+                } else if (item.getUpdate() != null) {
+                    invalidate(item.getUpdate().getTableName());
+                } else if (item.getDelete() != null) {
+                    invalidate(item.getDelete().getTableName());
+                }
+            }
+        } else {
+            LOGGER.warn("Unknown write {}, dropping the whole item cache", request.getClass().getSimpleName());
+            clear();
+        }
+    }
+
+    private void invalidate(String tableName) {
+        if (!ttlMillisByTable.containsKey(tableName)) {
+            return;
+        }
+        synchronized (entries) {
+            generations.merge(tableName, 1L, Long::sum);
+            entries.keySet().removeIf(key -> key.tableName().equals(tableName));
+        }
+    }
+}
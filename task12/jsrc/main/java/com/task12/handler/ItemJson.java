@@ -0,0 +1,49 @@
+package com.task12.handler;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes DynamoDB items straight to a JSON generator, so read routes do not build an intermediate
+ * object graph per response.
+ */
+public final class ItemJson {
+    private ItemJson() {
+    }
+
+    /**
+     * Writes a tables item. {@code nullMinOrder} keeps "minOrder": null for tables without one, as the list route does.
+     */
+    public static void writeTable(JsonGenerator generator, Map<String, AttributeValue> item, boolean nullMinOrder) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", Integer.parseInt(item.get("id").getS()));
+        writeNumberField(generator, "number", item.get("number"));
+        writeNumberField(generator, "places", item.get("places"));
+        generator.writeBooleanField("isVip", item.get("isVip").getBOOL());
+        AttributeValue minOrder = item.get("minOrder");
+        if (minOrder != null) {
+            writeNumberField(generator, "minOrder", minOrder);
+        } else if (nullMinOrder) {
+            generator.writeNullField("minOrder");
+        }
+        generator.writeEndObject();
+    }
+
+    public static void writeReservation(JsonGenerator generator, Map<String, AttributeValue> item) throws IOException {
+        generator.writeStartObject();
+        writeNumberField(generator, "tableNumber", item.get("tableNumber"));
+        generator.writeStringField("clientName", item.get("clientName").getS());
+        generator.writeStringField("phoneNumber", item.get("phoneNumber").getS());
+        generator.writeStringField("date", item.get("date").getS());
+        generator.writeStringField("slotTimeStart", item.get("slotTimeStart").getS());
+        generator.writeStringField("slotTimeEnd", item.get("slotTimeEnd").getS());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumberField(JsonGenerator generator, String name, AttributeValue value) throws IOException {
+        generator.writeNumberField(name, Integer.parseInt(value.getN()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.task12.handler;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * The one JSON stack of the booking API: a shared, pre-configured mapper and generator based writers
+ * for responses. Request bodies are bound by {@link RequestBinder}.
+ */
+public final class JsonCodec {
+    public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+    private static final ThreadLocal<StringWriter> BUFFER = ThreadLocal.withInitial(() -> new StringWriter(4096));
+
+    private JsonCodec() {
+    }
+
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(JsonGenerator generator) throws IOException;
+    }
+
+    public static String write(Body body) throws IOException {
+        StringWriter buffer = BUFFER.get();
+        buffer.getBuffer().setLength(0);
+        try (JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(buffer)) {
+            body.writeTo(generator);
+        }
+        String json = buffer.toString();
+        if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();
+        }
+        return json;
+    }
+
+    public static String object(String name, String value) {
+        try {
+            return write(generator -> {
+                generator.writeStartObject();
+                generator.writeStringField(name, value);
+                generator.writeEndObject();
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write response", e);
+        }
+    }
+
+    public static String object(String name, long value) {
+        try {
+            return write(generator -> {
+                generator.writeStartObject();
+                generator.writeNumberField(name, value);
+                generator.writeEndObject();
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write response", e);
+        }
+    }
+
+    public static String error(String message) {
+        return object("error", message);
+    }
+}
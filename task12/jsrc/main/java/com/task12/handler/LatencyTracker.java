@@ -0,0 +1,48 @@
+package com.task12.handler;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recent latencies per operation, kept in a small ring buffer each, for percentiles that follow how
+ * the service behaves right now rather than over the life of the container.
+ */
+public final class LatencyTracker {
+    private static final int WINDOW = 128;
+    private static final int MIN_SAMPLES = 20;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private static final class Window {
+        private final long[] samples = new long[WINDOW];
+        private int next;
+        private int count;
+
+        synchronized void add(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % WINDOW;
+            count = Math.min(count + 1, WINDOW);
+        }
+
+        synchronized long percentile(double percentile) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min((int) Math.ceil(percentile * count) - 1, count - 1)];
+        }
+    }
+
+    public void record(String operation, long millis) {
+        windows.computeIfAbsent(operation, key -> new Window()).add(millis);
+    }
+
+    /**
+     * @return the percentile (0..1) of the recent samples, or -1 while there are too few of them
+     */
+    public long percentile(String operation, double percentile) {
+        Window window = windows.get(operation);
+        return window == null ? -1 : window.percentile(percentile);
+    }
+}
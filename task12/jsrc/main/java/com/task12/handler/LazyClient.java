@@ -0,0 +1,61 @@
+package com.task12.handler;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Builds a client on first use and shares it afterwards, so a container only pays for the
+ * clients the routes it actually serves need.
+ */
+public final class LazyClient<T> implements Supplier<T> {
+    private final Supplier<T> factory;
+    private final Consumer<T> closer;
+    private volatile T client;
+    private volatile T override;
+
+    public LazyClient(Supplier<T> factory, Consumer<T> closer) {
+        this.factory = factory;
+        this.closer = closer;
+    }
+
+    @Override
+    public T get() {
+        T stub = override;
+        if (stub != null) {
+            return stub;
+        }
+        T current = client;
+        if (current == null) {
+            synchronized (this) {
+                current = client;
+                if (current == null) {
+                    current = factory.get();
+                    client = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public boolean isInitialized() {
+        return client != null;
+    }
+
+    /**
+     * Serves the given client instead of the real one until called again with null.
+     */
+    void override(T stub) {
+        this.override = stub;
+    }
+
+    /**
+     * Closes the current client; the next call builds a fresh one with new connections.
+     */
+    synchronized void reset() {
+        T current = client;
+        client = null;
+        if (current != null) {
+            closer.accept(current);
+        }
+    }
+}
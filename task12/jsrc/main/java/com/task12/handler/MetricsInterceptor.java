@@ -0,0 +1,43 @@
+package com.task12.handler;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * Times every call of an SDK v2 client, retries included, into the {@link InvocationMetrics} of the
+ * invocation that made it, as &lt;service&gt;.&lt;operation&gt;.
+ */
+final class MetricsInterceptor implements ExecutionInterceptor {
+    private static final ExecutionAttribute<Long> CALL_STARTED = new ExecutionAttribute<>("CallStarted");
+    private final String service;
+
+    MetricsInterceptor(String service) {
+        this.service = service;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(CALL_STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes);
+    }
+
+    private void record(ExecutionAttributes executionAttributes) {
+        Long started = executionAttributes.getAttribute(CALL_STARTED);
+        if (started != null) {
+            InvocationMetrics.record(service + "." + executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME),
+                    System.nanoTime() - started);
+        }
+    }
+}
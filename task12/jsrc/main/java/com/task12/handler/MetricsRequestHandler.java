@@ -0,0 +1,146 @@
+package com.task12.handler;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnConsumedCapacity;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.TransactGetItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactGetItemsResult;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+
+import java.util.List;
+
+/**
+ * Times every DynamoDB call, retries included, into the {@link InvocationMetrics} of the invocation
+ * that made it, as DynamoDB.&lt;operation&gt;. Every data call also asks for its TOTAL consumed
+ * capacity, which is added to the invocation's read or write capacity. Requests that already ask for
+ * consumed capacity are left as they are; the others are copied, so callers' requests stay unchanged.
+ */
+final class MetricsRequestHandler extends RequestHandler2 {
+    private static final HandlerContextKey<Long> CALL_STARTED = new HandlerContextKey<>("CallStarted");
+    private static final String TOTAL = ReturnConsumedCapacity.TOTAL.toString();
+
+    @Override
+    public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+        if (request instanceof GetItemRequest getItemRequest && getItemRequest.getReturnConsumedCapacity() == null) {
+            return getItemRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        if (request instanceof QueryRequest queryRequest && queryRequest.getReturnConsumedCapacity() == null) {
+            return queryRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        if (request instanceof ScanRequest scanRequest && scanRequest.getReturnConsumedCapacity() == null) {
+            return scanRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        if (request instanceof PutItemRequest putItemRequest && putItemRequest.getReturnConsumedCapacity() == null) {
+            return putItemRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        if (request instanceof UpdateItemRequest updateItemRequest && updateItemRequest.getReturnConsumedCapacity() == null) {
+            return updateItemRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        if (request instanceof DeleteItemRequest deleteItemRequest && deleteItemRequest.getReturnConsumedCapacity() == null) {
+            return deleteItemRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        if (request instanceof BatchGetItemRequest batchGetItemRequest && batchGetItemRequest.getReturnConsumedCapacity() == null) {
+            return batchGetItemRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        if (request instanceof BatchWriteItemRequest batchWriteItemRequest && batchWriteItemRequest.getReturnConsumedCapacity() == null) {
+            return batchWriteItemRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        if (request instanceof TransactGetItemsRequest transactGetItemsRequest && transactGetItemsRequest.getReturnConsumedCapacity() == null) {
+            return transactGetItemsRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        if (request instanceof TransactWriteItemsRequest transactWriteItemsRequest && transactWriteItemsRequest.getReturnConsumedCapacity() == null) {
+            return transactWriteItemsRequest.clone().withReturnConsumedCapacity(TOTAL);
+        }
+        return request;
+    }
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+        request.addHandlerContext(CALL_STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        record(request);
+        Object result = response.getAwsResponse();
+        if (result instanceof GetItemResult getItemResult) {
+            recordCapacity(getItemResult.getConsumedCapacity(), false);
+        } else if (result instanceof QueryResult queryResult) {
+            recordCapacity(queryResult.getConsumedCapacity(), false);
+        } else if (result instanceof ScanResult scanResult) {
+            recordCapacity(scanResult.getConsumedCapacity(), false);
+        } else if (result instanceof PutItemResult putItemResult) {
+            recordCapacity(putItemResult.getConsumedCapacity(), true);
+        } else if (result instanceof UpdateItemResult updateItemResult) {
+            recordCapacity(updateItemResult.getConsumedCapacity(), true);
+        } else if (result instanceof DeleteItemResult deleteItemResult) {
+            recordCapacity(deleteItemResult.getConsumedCapacity(), true);
+        } else if (result instanceof BatchGetItemResult batchGetItemResult) {
+            recordCapacity(batchGetItemResult.getConsumedCapacity(), false);
+        } else if (result instanceof BatchWriteItemResult batchWriteItemResult) {
+            recordCapacity(batchWriteItemResult.getConsumedCapacity(), true);
+        } else if (result instanceof TransactGetItemsResult transactGetItemsResult) {
+            recordCapacity(transactGetItemsResult.getConsumedCapacity(), false);
+        } else if (result instanceof TransactWriteItemsResult transactWriteItemsResult) {
+            recordCapacity(transactWriteItemsResult.getConsumedCapacity(), true);
+        }
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        record(request);
+    }
+
+    private static void record(Request<?> request) {
+        Long started = request.getHandlerContext(CALL_STARTED);
+        if (started != null) {
+            InvocationMetrics.record("DynamoDB." + DeadlineRequestHandler.operationName(request.getOriginalRequest()),
+                    System.nanoTime() - started);
+        }
+    }
+
+    private static void recordCapacity(List<ConsumedCapacity> consumedCapacities, boolean write) {
+        if (consumedCapacities != null) {
+            consumedCapacities.forEach(consumedCapacity -> recordCapacity(consumedCapacity, write));
+        }
+    }
+
+    /**
+     * Transactions report read and write units separately; other calls may only report the total,
+     * which belongs to the kind of call.
+     */
+    private static void recordCapacity(ConsumedCapacity consumedCapacity, boolean write) {
+        if (consumedCapacity == null) {
+            return;
+        }
+        double total = consumedCapacity.getCapacityUnits() != null ? consumedCapacity.getCapacityUnits() : 0;
+        Double read = consumedCapacity.getReadCapacityUnits();
+        Double written = consumedCapacity.getWriteCapacityUnits();
+        if (read == null && written == null) {
+            InvocationMetrics.recordCapacity(write ? 0 : total, write ? total : 0);
+        } else {
+            InvocationMetrics.recordCapacity(read != null ? read : 0, written != null ? written : 0);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.task12.handler;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque continuation token for list routes: a base64url encoded last evaluated key, read from
+ * the "nextToken" query parameter together with the "limit" page size.
+ */
+public final class PageToken {
+    public static final String NEXT_TOKEN = "nextToken";
+    public static final String LIMIT = "limit";
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final TypeReference<Map<String, Map<String, String>>> TOKEN_TYPE = new TypeReference<>() {};
+
+    private PageToken() {
+    }
+
+    public static int limit(APIGatewayProxyRequestEvent requestEvent) {
+        String limit = queryParameter(requestEvent, LIMIT);
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int value = Integer.parseInt(limit);
+            if (value < 1 || value > MAX_LIMIT) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT + ".");
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("limit must be a number.");
+        }
+    }
+
+    public static Map<String, AttributeValue> startKey(APIGatewayProxyRequestEvent requestEvent) {
+        return decode(queryParameter(requestEvent, NEXT_TOKEN));
+    }
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        Map<String, Map<String, String>> key = new LinkedHashMap<>();
+        lastEvaluatedKey.forEach((name, value) -> key.put(name, value.getN() != null
+                ? Map.of("N", value.getN())
+                : Map.of("S", value.getS())));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(JsonCodec.OBJECT_MAPPER.writeValueAsBytes(key));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode page token", e);
+        }
+    }
+
+    public static Map<String, AttributeValue> decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            Map<String, Map<String, String>> key = JsonCodec.OBJECT_MAPPER.readValue(
+                    new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8), TOKEN_TYPE);
+            Map<String, AttributeValue> startKey = new LinkedHashMap<>();
+            key.forEach((name, value) -> startKey.put(name, value.containsKey("N")
+                    ? new AttributeValue().withN(value.get("N"))
+                    : new AttributeValue(value.get("S"))));
+            return startKey;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid nextToken.");
+        }
+    }
+
+    private static String queryParameter(APIGatewayProxyRequestEvent requestEvent, String name) {
+        Map<String, String> queryParameters = requestEvent.getQueryStringParameters();
+        return queryParameters == null ? null : queryParameters.get(name);
+    }
+}
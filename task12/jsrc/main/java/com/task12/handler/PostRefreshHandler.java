@@ -0,0 +1,32 @@
+package com.task12.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.task12.dto.Refresh;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+
+import static com.task12.ApiHandler.createResponse;
+
+public class PostRefreshHandler extends CognitoSupport implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    private static final RequestBinder<Refresh> REQUEST_BINDER = RequestBinder.compile("RefreshRequest", Refresh.class);
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
+        try {
+            Refresh requestBody = REQUEST_BINDER.bind(requestEvent.getBody());
+
+            AuthenticationResultType authenticationResult = cognitoRefresh(requestBody.refreshToken()).authenticationResult();
+
+            return createResponse(200, JsonCodec.write(generator -> {
+                generator.writeStartObject();
+                writeTokens(generator, authenticationResult);
+                generator.writeEndObject();
+            }));
+        } catch (Exception e) {
+            context.getLogger().log("Error: " + e.getMessage());
+            return createResponse(400, "There was an error in the request.");
+        }
+    }
+}
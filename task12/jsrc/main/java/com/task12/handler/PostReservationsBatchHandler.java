@@ -0,0 +1,90 @@
+package com.task12.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.task12.dto.Reservation;
+import com.task12.repository.ReservationRepository;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.task12.ApiHandler.createResponse;
+
+/**
+ * Makes up to 100 reservations in one request. Every reservation is validated like a POST /reservations
+ * body and the valid ones are booked together, overlaps within the batch included; the response has one
+ * result per reservation, in order, with either its reservationId or the reason it was not made.
+ */
+public class PostReservationsBatchHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    static final int MAX_BATCH_SIZE = 100;
+    private static final RequestBinder<Reservation> REQUEST_BINDER = RequestBinder.compile("ReservationRequest", Reservation.class);
+    private final ReservationRepository reservationRepository;
+    private final TablesCatalog tablesCatalog;
+
+    public PostReservationsBatchHandler(ReservationRepository reservationRepository, TablesCatalog tablesCatalog) {
+        this.reservationRepository = reservationRepository;
+        this.tablesCatalog = tablesCatalog;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
+        try {
+            List<RequestBinder.Bound<Reservation>> reservations =
+                    REQUEST_BINDER.bindEach(input.getBody(), "reservations", MAX_BATCH_SIZE);
+
+            String[] reservationIds = new String[reservations.size()];
+            String[] errors = new String[reservations.size()];
+            List<Integer> indexes = new ArrayList<>();
+            List<ReservationRepository.Booking> bookings = new ArrayList<>();
+            for (int i = 0; i < reservations.size(); i++) {
+                Reservation reservation = reservations.get(i).value();
+                if (reservation == null) {
+                    errors[i] = reservations.get(i).error();
+                    continue;
+                }
+                try {
+                    LocalTime startTime = PostReservationHandler.parseTime(reservation.slotTimeStart());
+                    LocalTime endTime = PostReservationHandler.parseTime(reservation.slotTimeEnd());
+                    if (!tablesCatalog.containsNumber(reservation.tableNumber())) {
+                        throw new IllegalArgumentException("Table not found.");
+                    }
+                    reservationIds[i] = UUID.randomUUID().toString();
+                    bookings.add(new ReservationRepository.Booking(reservation.tableNumber(), reservation.date(), startTime, endTime,
+                            PostReservationHandler.toItem(reservationIds[i], reservation, startTime, endTime)));
+                    indexes.add(i);
+                } catch (IllegalArgumentException e) {
+                    errors[i] = e.getMessage();
+                }
+            }
+
+            if (!bookings.isEmpty()) {
+                List<String> bookingErrors = reservationRepository.bookAll(bookings);
+                for (int j = 0; j < bookingErrors.size(); j++) {
+                    errors[indexes.get(j)] = bookingErrors.get(j);
+                }
+            }
+
+            return createResponse(200, JsonCodec.write(generator -> {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("results");
+                for (int i = 0; i < errors.length; i++) {
+                    generator.writeStartObject();
+                    if (errors[i] != null) {
+                        generator.writeStringField("error", errors[i]);
+                    } else {
+                        generator.writeStringField("reservationId", reservationIds[i]);
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }));
+        } catch (Exception e) {
+            return createResponse(400, JsonCodec.error(e.getMessage()));
+        }
+    }
+}
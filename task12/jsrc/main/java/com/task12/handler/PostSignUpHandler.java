@@ -4,30 +4,45 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import org.json.JSONObject;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import com.task12.dto.SignUp;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+
+import java.util.Arrays;
+import java.util.Map;
 
 import static com.task12.ApiHandler.createResponse;
 
 public class PostSignUpHandler extends CognitoSupport implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
-
-    public PostSignUpHandler(CognitoIdentityProviderClient cognitoClient) {
-        super(cognitoClient);
-    }
+    private static final RequestBinder<SignUp> REQUEST_BINDER = RequestBinder.compile("SignUpRequest", SignUp.class);
+    private static final String SIGN_UP_MESSAGE = "Sign-up process is successful";
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
         try {
-            JSONObject requestBody = new JSONObject(requestEvent.getBody());
-            validateRequestBody(requestBody);
+            SignUp requestBody = REQUEST_BINDER.bind(requestEvent.getBody());
+            validateCredentials(requestBody.email(), requestBody.password());
 
             cognitoSignUp(requestBody);
-            confirmSignUp(requestBody);
+            setPermanentPassword(requestBody.email(), requestBody.password());
+            if (!isSignInRequested(requestEvent)) {
+                return createResponse(200, SIGN_UP_MESSAGE);
+            }
 
-            return createResponse(200, "Sign-up process is successful");
+            AuthenticationResultType authenticationResult = cognitoSignIn(requestBody.email(), requestBody.password())
+                    .authenticationResult();
+            return createResponse(200, JsonCodec.write(generator -> {
+                generator.writeStartObject();
+                generator.writeStringField("message", SIGN_UP_MESSAGE);
+                writeTokens(generator, authenticationResult);
+                generator.writeEndObject();
+            }));
         } catch (Exception e) {
-            String error = new JSONObject().put("error", e.getStackTrace()).toString();
-            return createResponse(400, error);
+            return createResponse(400, JsonCodec.error(Arrays.toString(e.getStackTrace())));
         }
     }
+
+    private static boolean isSignInRequested(APIGatewayProxyRequestEvent requestEvent) {
+        Map<String, String> queryParameters = requestEvent.getQueryStringParameters();
+        return queryParameters != null && Boolean.parseBoolean(queryParameters.get("signIn"));
+    }
 }
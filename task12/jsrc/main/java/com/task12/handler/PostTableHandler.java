@@ -1,87 +1,54 @@
 package com.task12.handler;
 
-import com.amazonaws.ClientConfiguration;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
-import com.amazonaws.services.dynamodbv2.document.DynamoDB;
-import com.amazonaws.services.dynamodbv2.document.Item;
-import com.amazonaws.services.dynamodbv2.document.Table;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import org.json.JSONObject;
-import java.util.Optional;
+import com.task12.dto.Table;
+import com.task12.repository.TableRepository;
+
+import java.util.HashMap;
+import java.util.Map;
 
 import static com.task12.ApiHandler.createResponse;
 
 public class PostTableHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
-    private static final String TABLE_NAME = "tables_table";
-    private static final String REGION = "REGION";
-    private final AmazonDynamoDB dynamoDbClient;
-    private final DynamoDB dynamoDB;
+    private static final RequestBinder<Table> REQUEST_BINDER = RequestBinder.compile("TableCreateRequest", Table.class);
+    private final TableRepository tableRepository;
+    private final TablesCatalog tablesCatalog;
 
-    public PostTableHandler() {
-        this.dynamoDbClient = initializeDynamoDBClient();
-        this.dynamoDB = new DynamoDB(dynamoDbClient);
+    public PostTableHandler(TableRepository tableRepository, TablesCatalog tablesCatalog) {
+        this.tableRepository = tableRepository;
+        this.tablesCatalog = tablesCatalog;
     }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
         try {
-            JSONObject requestBody = new JSONObject(input.getBody());
-            validateRequestBody(requestBody);
-
-
-            Item item = new Item()
-                .withPrimaryKey("id", String.valueOf(requestBody.getInt("id")))
-                .withNumber("number", requestBody.getInt("number"))
-                .withNumber("places", requestBody.getInt("places"))
-                .withBoolean("isVip", requestBody.getBoolean("isVip"));
-            if (requestBody.has("minOrder")) {
-                item.withNumber("minOrder", requestBody.getInt("minOrder"));
-            }
+            Table requestBody = REQUEST_BINDER.bind(input.getBody());
 
-            saveEventToDynamoDB(item);
+            tableRepository.save(toItem(requestBody));
+            tablesCatalog.invalidate();
 
-            String idJson = new JSONObject().put("id", requestBody.getInt("id")).toString();
-            return createResponse(200, idJson);
+            return createResponse(200, JsonCodec.object("id", requestBody.id()));
         } catch (Exception e) {
-            JSONObject errorResponse = new JSONObject().put("error", e.getMessage());
-            return createResponse(400, errorResponse.toString());
+            return createResponse(400, JsonCodec.error(e.getMessage()));
         }
     }
 
-    private AmazonDynamoDB initializeDynamoDBClient() {
-        String region = Optional.ofNullable(System.getenv(REGION))
-                .orElseThrow(() -> new IllegalStateException("Missing region environment variable"));
-
-        return AmazonDynamoDBClientBuilder.standard()
-                .withRegion(region)
-                .withClientConfiguration(new ClientConfiguration()
-                        .withConnectionTimeout(2000)
-                        .withRequestTimeout(5000))
-                .build();
-    }
-
-    private void saveEventToDynamoDB (Item auditEntry){
-        String tableName = getTableName();
-        Table auditTable = dynamoDB.getTable(tableName);
-
-        auditTable.putItem(auditEntry);
-    }
-
-    private static String getTableName() {
-        return Optional.ofNullable(System.getenv(TABLE_NAME))
-                .orElseThrow(() -> new IllegalStateException("Missing region environment variable"));
-    }
-
-    private void validateRequestBody(JSONObject requestBody) {
-        String[] requiredFields = {"number", "places", "isVip"};
-        for (String field : requiredFields) {
-            if (!requestBody.has(field)) {
-                throw new IllegalArgumentException("Missing required field: " + field);
-            }
+    /**
+     * The tables_table item of a table to create.
+     */
+    static Map<String, AttributeValue> toItem(Table table) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("id", new AttributeValue(String.valueOf(table.id())));
+        item.put("number", new AttributeValue().withN(String.valueOf(table.number())));
+        item.put("places", new AttributeValue().withN(String.valueOf(table.places())));
+        item.put("isVip", new AttributeValue().withBOOL(table.isVip()));
+        if (table.minOrder() != null) {
+            item.put("minOrder", new AttributeValue().withN(String.valueOf(table.minOrder())));
         }
+        return item;
     }
-}
\ No newline at end of file
+}
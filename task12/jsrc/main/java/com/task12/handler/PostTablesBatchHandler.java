@@ -0,0 +1,80 @@
+package com.task12.handler;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.task12.dto.Table;
+import com.task12.repository.TableRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.task12.ApiHandler.createResponse;
+
+/**
+ * Creates up to 100 tables in one request. Every table is validated like a POST /tables body, and the
+ * valid ones are written together; the response has one result per table, in order, with either its
+ * id or the reason it was not created.
+ */
+public class PostTablesBatchHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+    static final int MAX_BATCH_SIZE = 100;
+    private static final RequestBinder<Table> REQUEST_BINDER = RequestBinder.compile("TableCreateRequest", Table.class);
+    private final TableRepository tableRepository;
+    private final TablesCatalog tablesCatalog;
+
+    public PostTablesBatchHandler(TableRepository tableRepository, TablesCatalog tablesCatalog) {
+        this.tableRepository = tableRepository;
+        this.tablesCatalog = tablesCatalog;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent input, Context context) {
+        try {
+            List<RequestBinder.Bound<Table>> tables = REQUEST_BINDER.bindEach(input.getBody(), "tables", MAX_BATCH_SIZE);
+
+            String[] errors = new String[tables.size()];
+            Map<String, Integer> indexesById = new HashMap<>();
+            List<Map<String, AttributeValue>> items = new ArrayList<>();
+            for (int i = 0; i < tables.size(); i++) {
+                Table table = tables.get(i).value();
+                if (table == null) {
+                    errors[i] = tables.get(i).error();
+                } else if (indexesById.putIfAbsent(String.valueOf(table.id()), i) != null) {
+                    // One BatchWriteItem request may not write an item twice
+                    errors[i] = "Duplicate id in the batch.";
+                } else {
+                    items.add(PostTableHandler.toItem(table));
+                }
+            }
+
+            if (!items.isEmpty()) {
+                for (Map<String, AttributeValue> unwritten : tableRepository.saveAll(items)) {
+                    errors[indexesById.get(unwritten.get("id").getS())] = "Table was not created, please retry.";
+                }
+                tablesCatalog.invalidate();
+            }
+
+            return createResponse(200, JsonCodec.write(generator -> {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("results");
+                for (int i = 0; i < errors.length; i++) {
+                    generator.writeStartObject();
+                    if (errors[i] != null) {
+                        generator.writeStringField("error", errors[i]);
+                    } else {
+                        generator.writeNumberField("id", tables.get(i).value().id());
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }));
+        } catch (Exception e) {
+            return createResponse(400, JsonCodec.error(e.getMessage()));
+        }
+    }
+}
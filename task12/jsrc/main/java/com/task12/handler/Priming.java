@@ -0,0 +1,320 @@
+package com.task12.handler;
+
+import com.amazonaws.services.dynamodbv2.AbstractAmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminSetUserPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminSetUserPasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkpoint/restore support for the API lambda. Before a snapshot every route is dry-run against
+ * local DynamoDB and Cognito stubs so routing, JSON codecs, formatters and request models are
+ * loaded and warmed; after restore the shared clients are rebuilt so no connection or credential
+ * captured in the snapshot is reused.
+ */
+public final class Priming {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Priming.class);
+    private static final int ITERATIONS = 20;
+    private static final String TABLES_TABLE = "tables_table";
+
+    private Priming() {
+    }
+
+    public static void prime(RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> apiHandler) {
+        warmRealClients();
+        installStubs();
+        try {
+            for (int i = 0; i < ITERATIONS; i++) {
+                for (APIGatewayProxyRequestEvent event : dryRunEvents()) {
+                    apiHandler.handleRequest(event, StubContext.INSTANCE);
+                }
+            }
+        } finally {
+            removeStubs();
+        }
+    }
+
+    /**
+     * Serves the DynamoDB and Cognito stubs to every handler until {@link #removeStubs()}.
+     */
+    static void installStubs() {
+        DynamoSupport.DYNAMO_DB_CLIENT.override(new StubDynamoDB());
+        CognitoSupport.COGNITO_CLIENT.override(new StubCognitoClient());
+    }
+
+    static void removeStubs() {
+        DynamoSupport.DYNAMO_DB_CLIENT.override(null);
+        CognitoSupport.COGNITO_CLIENT.override(null);
+    }
+
+    public static void reconnect() {
+        DynamoSupport.DYNAMO_DB_CLIENT.reset();
+        DynamoSupport.ITEM_CACHE.clear();
+        CognitoSupport.COGNITO_CLIENT.reset();
+    }
+
+    /**
+     * Building the real clients loads the SDK client, signer and HTTP stacks into the snapshot;
+     * the instances are discarded because their connections must not outlive the checkpoint.
+     */
+    private static void warmRealClients() {
+        try {
+            DynamoSupport.DYNAMO_DB_CLIENT.get();
+            CognitoSupport.COGNITO_CLIENT.get();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not build clients while priming: {}", e.getMessage());
+        } finally {
+            reconnect();
+        }
+    }
+
+    static List<APIGatewayProxyRequestEvent> dryRunEvents() {
+        String credentials = "{\"email\":\"priming@example.com\",\"password\":\"Priming-Pass1$\"}";
+        String signUp = "{\"firstName\":\"Priming\",\"lastName\":\"Stub\","
+                + "\"email\":\"priming@example.com\",\"password\":\"Priming-Pass1$\"}";
+        return List.of(
+                event("POST", "/signup", null, signUp),
+                event("POST", "/signup", null, signUp).withQueryStringParameters(Map.of("signIn", "true")),
+                event("POST", "/signin", null, credentials),
+                event("POST", "/refresh", null, "{\"refreshToken\":\"priming\"}"),
+                event("GET", "/tables", null, null),
+                event("POST", "/tables", null, "{\"id\":1,\"number\":1,\"places\":4,\"isVip\":false,\"minOrder\":1000}"),
+                event("POST", "/tables/batch", null, "{\"tables\":[{\"id\":1,\"number\":1,\"places\":4,\"isVip\":false},"
+                        + "{\"id\":2,\"number\":2,\"places\":2,\"isVip\":true,\"minOrder\":1000}]}"),
+                event("GET", "/tables/{tableId}", Map.of("tableId", "1"), null),
+                event("POST", "/reservations", null, "{\"tableNumber\":1,\"clientName\":\"Priming Stub\","
+                        + "\"phoneNumber\":\"0000000000\",\"date\":\"2024-01-01\",\"slotTimeStart\":\"12:00\",\"slotTimeEnd\":\"13:00\"}"),
+                event("POST", "/reservations/batch", null, "{\"reservations\":[{\"tableNumber\":1,\"clientName\":\"Priming Stub\","
+                        + "\"phoneNumber\":\"0000000000\",\"date\":\"2024-01-01\",\"slotTimeStart\":\"12:00\",\"slotTimeEnd\":\"13:00\"},"
+                        + "{\"tableNumber\":1,\"clientName\":\"Priming Stub\",\"phoneNumber\":\"0000000000\","
+                        + "\"date\":\"2024-01-02\",\"slotTimeStart\":\"12:00\",\"slotTimeEnd\":\"13:00\"}]}"),
+                event("GET", "/reservations", null, null),
+                event("OPTIONS", "/reservations", null, null),
+                new APIGatewayProxyRequestEvent()
+                        .withHttpMethod("GET")
+                        .withResource("/tables")
+                        .withPath("/tables")
+                        .withHeaders(Map.of("Authorization", "Bearer priming"))
+        );
+    }
+
+    private static APIGatewayProxyRequestEvent event(String method, String resource, Map<String, String> pathParameters, String body) {
+        return new APIGatewayProxyRequestEvent()
+                .withHttpMethod(method)
+                .withResource(resource)
+                .withPath(resource)
+                .withPathParameters(pathParameters)
+                .withRequestContext(authorizedContext())
+                .withBody(body);
+    }
+
+    /**
+     * Claims as left by the API Gateway Cognito authorizer, so authenticated routes run their handlers.
+     */
+    private static APIGatewayProxyRequestEvent.ProxyRequestContext authorizedContext() {
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setAuthorizer(Map.of("claims", Map.of("sub", "priming")));
+        return requestContext;
+    }
+
+    private static final class StubDynamoDB extends AbstractAmazonDynamoDB {
+        private static final Map<String, AttributeValue> TABLE = Map.of(
+                "id", new AttributeValue("1"),
+                "number", new AttributeValue().withN("1"),
+                "places", new AttributeValue().withN("4"),
+                "isVip", new AttributeValue().withBOOL(false),
+                "minOrder", new AttributeValue().withN("1000"));
+        private static final Map<String, AttributeValue> RESERVATION = Map.ofEntries(
+                Map.entry("id", new AttributeValue("00000000-0000-0000-0000-000000000000")),
+                Map.entry("tableNumber", new AttributeValue().withN("1")),
+                Map.entry("clientName", new AttributeValue("Priming Stub")),
+                Map.entry("phoneNumber", new AttributeValue("0000000000")),
+                Map.entry("date", new AttributeValue("2024-01-01")),
+                Map.entry("slotTimeStart", new AttributeValue("10:00")),
+                Map.entry("slotTimeEnd", new AttributeValue("11:00")),
+                Map.entry("slotKey", new AttributeValue("2024-01-01#10:00")),
+                Map.entry("startMinute", new AttributeValue().withN("600")),
+                Map.entry("endMinute", new AttributeValue().withN("660")),
+                Map.entry("startAt", new AttributeValue().withN("202401010600")));
+
+        @Override
+        public ScanResult scan(ScanRequest request) {
+            return new ScanResult().withItems(List.of(isTablesTable(request.getTableName()) ? TABLE : RESERVATION));
+        }
+
+        @Override
+        public QueryResult query(QueryRequest request) {
+            return new QueryResult().withItems(List.of(RESERVATION));
+        }
+
+        @Override
+        public GetItemResult getItem(GetItemRequest request) {
+            return isTablesTable(request.getTableName()) ? new GetItemResult().withItem(TABLE) : new GetItemResult();
+        }
+
+        @Override
+        public BatchGetItemResult batchGetItem(BatchGetItemRequest request) {
+            return new BatchGetItemResult().withResponses(Map.of());
+        }
+
+        @Override
+        public BatchWriteItemResult batchWriteItem(BatchWriteItemRequest request) {
+            return new BatchWriteItemResult().withUnprocessedItems(Map.of());
+        }
+
+        @Override
+        public PutItemResult putItem(PutItemRequest request) {
+            return new PutItemResult();
+        }
+
+        @Override
+        public UpdateItemResult updateItem(UpdateItemRequest request) {
+            return new UpdateItemResult();
+        }
+
+        @Override
+        public TransactWriteItemsResult transactWriteItems(TransactWriteItemsRequest request) {
+            return new TransactWriteItemsResult();
+        }
+
+        private static boolean isTablesTable(String tableName) {
+            return tableName != null && tableName.equals(System.getenv(TABLES_TABLE));
+        }
+    }
+
+    private static final class StubCognitoClient implements CognitoIdentityProviderClient {
+        private static final AuthenticationResultType AUTHENTICATION_RESULT = AuthenticationResultType.builder()
+                .idToken("priming")
+                .accessToken("priming")
+                .refreshToken("priming")
+                .build();
+
+        @Override
+        public AdminCreateUserResponse adminCreateUser(AdminCreateUserRequest request) {
+            return AdminCreateUserResponse.builder().build();
+        }
+
+        @Override
+        public AdminInitiateAuthResponse adminInitiateAuth(AdminInitiateAuthRequest request) {
+            return AdminInitiateAuthResponse.builder()
+                    .authenticationResult(AUTHENTICATION_RESULT)
+                    .build();
+        }
+
+        @Override
+        public AdminSetUserPasswordResponse adminSetUserPassword(AdminSetUserPasswordRequest request) {
+            return AdminSetUserPasswordResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    enum StubContext implements Context {
+        INSTANCE;
+
+        private static final LambdaLogger DISCARDING_LOGGER = new LambdaLogger() {
+            @Override
+            public void log(String message) {
+            }
+
+            @Override
+            public void log(byte[] message) {
+            }
+        };
+
+        @Override
+        public String getAwsRequestId() {
+            return "priming";
+        }
+
+        @Override
+        public String getLogGroupName() {
+            return "priming";
+        }
+
+        @Override
+        public String getLogStreamName() {
+            return "priming";
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "priming";
+        }
+
+        @Override
+        public String getFunctionVersion() {
+            return "priming";
+        }
+
+        @Override
+        public String getInvokedFunctionArn() {
+            return "priming";
+        }
+
+        @Override
+        public CognitoIdentity getIdentity() {
+            return null;
+        }
+
+        @Override
+        public ClientContext getClientContext() {
+            return null;
+        }
+
+        @Override
+        public int getRemainingTimeInMillis() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public int getMemoryLimitInMB() {
+            return 0;
+        }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return DISCARDING_LOGGER;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.task12.handler;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.time.Month;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Binds a JSON request body to a record in {@code com.task12.dto} in one streaming pass, checking every
+ * property against its request schema in the OpenAPI export: type, required, minimum, minLength, format
+ * (date, email) and pattern. Binders are compiled once per schema when a handler class loads and are
+ * shared; binding a valid body builds no JSON tree, uses no reflection and throws nothing.
+ */
+public final class RequestBinder<T extends Record> {
+    static final Pattern EMAIL_PATTERN = Pattern.compile("^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}$");
+    private static final String OPENAPI_RESOURCE = "/openapi/gei6n5n96l_oas_v3.json";
+    private static final String SCHEMA_REF_PREFIX = "#/components/schemas/";
+    private static final JsonNode SCHEMAS = loadSchemas();
+    private final Property[] properties;
+    private final Map<String, Property> propertiesByName;
+    private final MethodHandle constructor;
+
+    private RequestBinder(Property[] properties, MethodHandle constructor) {
+        this.properties = properties;
+        this.propertiesByName = new HashMap<>();
+        for (Property property : properties) {
+            propertiesByName.put(property.name, property);
+        }
+        this.constructor = constructor;
+    }
+
+    /**
+     * Compiles the binder of a components/schemas entry. Every record component must be a property
+     * of the schema with a matching type.
+     */
+    public static <T extends Record> RequestBinder<T> compile(String schemaName, Class<T> type) {
+        JsonNode schema = SCHEMAS.path(schemaName);
+        if (schema.has("$ref")) {
+            schema = SCHEMAS.path(schema.get("$ref").asText().substring(SCHEMA_REF_PREFIX.length()));
+        }
+        if (!"object".equals(schema.path("type").asText())) {
+            throw new IllegalStateException("No object schema " + schemaName + " in " + OPENAPI_RESOURCE);
+        }
+
+        RecordComponent[] components = type.getRecordComponents();
+        Property[] properties = new Property[components.length];
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            String name = components[i].getName();
+            JsonNode propertySchema = schema.path("properties").path(name);
+            if (propertySchema.isMissingNode()) {
+                throw new IllegalStateException(schemaName + " has no property " + name);
+            }
+            boolean required = false;
+            for (JsonNode requiredName : schema.path("required")) {
+                required |= requiredName.asText().equals(name);
+            }
+            properties[i] = new Property(i, name, Kind.of(propertySchema, components[i].getType()), required, propertySchema);
+            parameterTypes[i] = components[i].getType();
+        }
+
+        try {
+            MethodHandle constructor = MethodHandles.publicLookup()
+                    .findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new RequestBinder<>(properties, constructor);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No canonical constructor on " + type.getName(), e);
+        }
+    }
+
+    /**
+     * The outcome of binding one element of a batch: the record, or why the element is invalid.
+     */
+    public record Bound<T>(T value, String error) {}
+
+    /**
+     * @throws IllegalArgumentException naming the first missing or invalid property, or when the body is not a JSON object
+     */
+    public T bind(String body) {
+        try (JsonParser parser = openObject(body)) {
+            return readObject(parser);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed request body: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Binds every element of the array property field of a JSON object body, such as {"tables": [...]},
+     * each on its own, so an invalid element does not fail the others.
+     *
+     * @return one result per element, in order
+     * @throws IllegalArgumentException when the body is malformed, field is not a non-empty array or
+     *                                  it has more than maxItems elements
+     */
+    public List<Bound<T>> bindEach(String body, String field, int maxItems) {
+        List<Bound<T>> results = null;
+        try (JsonParser parser = openObject(body)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean isField = field.equals(parser.getCurrentName());
+                JsonToken token = parser.nextToken();
+                if (!isField) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (token != JsonToken.START_ARRAY) {
+                    throw new IllegalArgumentException(field + " must be an array.");
+                }
+                results = new ArrayList<>();
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (results.size() == maxItems) {
+                        throw new IllegalArgumentException("At most " + maxItems + " " + field + " are accepted at once.");
+                    }
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        results.add(new Bound<>(null, "Expected a JSON object."));
+                        continue;
+                    }
+                    try {
+                        results.add(new Bound<>(readObject(parser), null));
+                    } catch (IllegalArgumentException e) {
+                        results.add(new Bound<>(null, e.getMessage()));
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed request body: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (results == null || results.isEmpty()) {
+            throw new IllegalArgumentException(field + " is required.");
+        }
+        return results;
+    }
+
+    private static JsonParser openObject(String body) throws IOException {
+        if (body == null || body.isBlank()) {
+            throw new IllegalArgumentException("Request body is required.");
+        }
+        JsonParser parser = JsonCodec.OBJECT_MAPPER.getFactory().createParser(body);
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            parser.close();
+            throw new IllegalArgumentException("Malformed request body: expected a JSON object.");
+        }
+        return parser;
+    }
+
+    /**
+     * Reads the object the parser is at up to and including its END_OBJECT, so the parser can go on
+     * after an invalid one.
+     */
+    @SuppressWarnings("unchecked")
+    private T readObject(JsonParser parser) throws IOException {
+        Object[] values = new Object[properties.length];
+        String error = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Property property = propertiesByName.get(parser.getCurrentName());
+            JsonToken token = parser.nextToken();
+            if (property == null || error != null) {
+                parser.skipChildren();
+            } else if (token != JsonToken.VALUE_NULL) {
+                Object value = property.read(parser, token);
+                if (value == null) {
+                    error = "Valid " + property.name + property.hint + " is required.";
+                    parser.skipChildren();
+                }
+                values[property.index] = value;
+            }
+        }
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        for (Property property : properties) {
+            if (property.required && values[property.index] == null) {
+                throw new IllegalArgumentException(property.name + " is required.");
+            }
+        }
+        try {
+            Object bound = constructor.invokeExact(values);
+            return (T) bound;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static boolean isDate(String value) {
+        if (value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return false;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 7);
+        int day = digits(value, 8, 10);
+        return year >= 0 && month >= 1 && month <= 12 && day >= 1
+                && day <= Month.of(month).length(Year.isLeap(year));
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static JsonNode loadSchemas() {
+        try (InputStream in = RequestBinder.class.getResourceAsStream(OPENAPI_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException(OPENAPI_RESOURCE + " is missing from the classpath");
+            }
+            return JsonCodec.OBJECT_MAPPER.readTree(in).path("components").path("schemas");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private enum Kind {
+        INTEGER, STRING, BOOLEAN;
+
+        static Kind of(JsonNode schema, Class<?> javaType) {
+            Kind kind = switch (schema.path("type").asText()) {
+                case "integer" -> INTEGER;
+                case "string" -> STRING;
+                case "boolean" -> BOOLEAN;
+                default -> throw new IllegalStateException("Unsupported schema type " + schema.path("type").asText());
+            };
+            Class<?> expected = switch (kind) {
+                case INTEGER -> Integer.class;
+                case STRING -> String.class;
+                case BOOLEAN -> Boolean.class;
+            };
+            if (javaType != expected) {
+                throw new IllegalStateException("Expected " + expected.getSimpleName() + " for " + schema);
+            }
+            return kind;
+        }
+    }
+
+    private static final class Property {
+        private final int index;
+        private final String name;
+        private final Kind kind;
+        private final boolean required;
+        private final long minimum;
+        private final int minLength;
+        private final String format;
+        private final Pattern pattern;
+        private final String hint;
+
+        private Property(int index, String name, Kind kind, boolean required, JsonNode schema) {
+            this.index = index;
+            this.name = name;
+            this.kind = kind;
+            this.required = required;
+            this.minimum = schema.has("minimum") ? schema.get("minimum").asLong() : Long.MIN_VALUE;
+            this.minLength = schema.path("minLength").asInt(0);
+            this.format = schema.path("format").asText(null);
+            this.pattern = schema.has("pattern") ? Pattern.compile(schema.get("pattern").asText()) : null;
+            this.hint = "date".equals(format) ? " (yyyy-MM-dd)" : "";
+        }
+
+        /**
+         * Returns the bound value, or null when it does not satisfy the schema.
+         */
+        private Object read(JsonParser parser, JsonToken token) throws IOException {
+            switch (kind) {
+                case INTEGER:
+                    if (token != JsonToken.VALUE_NUMBER_INT || parser.getNumberType() != JsonParser.NumberType.INT) {
+                        return null;
+                    }
+                    int number = parser.getIntValue();
+                    return number >= minimum ? number : null;
+                case BOOLEAN:
+                    return token == JsonToken.VALUE_TRUE ? Boolean.TRUE : token == JsonToken.VALUE_FALSE ? Boolean.FALSE : null;
+                default:
+                    if (token != JsonToken.VALUE_STRING) {
+                        return null;
+                    }
+                    String text = parser.getText();
+                    return matches(text) ? text : null;
+            }
+        }
+
+        private boolean matches(String text) {
+            if (text.length() < minLength) {
+                return false;
+            }
+            if (format != null) {
+                switch (format) {
+                    case "date":
+                        if (!isDate(text)) {
+                            return false;
+                        }
+                        break;
+                    case "email":
+                        if (!EMAIL_PATTERN.matcher(text).matches()) {
+                            return false;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return pattern == null || pattern.matcher(text).matches();
+        }
+    }
+}
@@ -1,33 +0,0 @@
-package com.task12.handler;
-
-import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
-import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
-import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
-import org.json.JSONObject;
-
-import java.util.Map;
-
-public class RouteNotImplementedHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
-
-    @Override
-    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent requestEvent, Context context) {
-
-        return new APIGatewayProxyResponseEvent()
-                .withStatusCode(501)
-                .withHeaders(Map.of(
-                        "Access-Control-Allow-Headers", "Content-Type,X-Amz-Date,Authorization,X-Api-Key,X-Amz-Security-Token",
-                        "Access-Control-Allow-Origin", "*",
-                        "Access-Control-Allow-Methods", "*",
-                        "Accept-Version", "*"
-                ))
-                .withBody(
-                        new JSONObject().put(
-                                "message",
-                                "Handler for the %s method on the %s path is not implemented."
-                                        .formatted(requestEvent.getHttpMethod(), requestEvent.getPath())
-                        ).toString()
-                );
-    }
-
-}
@@ -0,0 +1,198 @@
+package com.task12.handler;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route table compiled once at init into a tree of path segments. Literal segments are matched
+ * before "{name}" template segments, and every path node carries its own method dispatch table, so
+ * a lookup walks the path once and tells an unknown path (404) from an unsupported method (405).
+ */
+public final class Router {
+    private final Node root;
+
+    private Router(Node root) {
+        this.root = root;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Resolves a path, either a resource template as sent by API Gateway or a concrete request path.
+     * Values of template segments are returned only for concrete paths.
+     */
+    public Match match(String method, String path) {
+        Node node = root;
+        List<String> values = null;
+        int start = path.startsWith("/") ? 1 : 0;
+        int length = path.endsWith("/") && path.length() > 1 ? path.length() - 1 : path.length();
+        while (node != null && start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0 || end > length) {
+                end = length;
+            }
+            String segment = path.substring(start, end);
+            Node literal = node.literals.get(segment);
+            if (literal != null) {
+                node = literal;
+            } else if (node.parameter != null) {
+                node = node.parameter;
+                if (!isTemplateSegment(segment)) {
+                    if (values == null) {
+                        values = new ArrayList<>(2);
+                    }
+                    values.add(segment);
+                }
+            } else {
+                node = null;
+            }
+            start = end + 1;
+        }
+
+        if (node == null || node.handlers.isEmpty()) {
+            return Match.NOT_FOUND;
+        }
+        RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler = node.handlers.get(method);
+        if (handler == null) {
+            return new Match(null, null, node.allow, node.template);
+        }
+        return new Match(handler, pathParameters(node.parameterNames, values), node.allow, node.template);
+    }
+
+    private static Map<String, String> pathParameters(List<String> names, List<String> values) {
+        if (values == null || values.size() != names.size()) {
+            return null;
+        }
+        Map<String, String> parameters = new HashMap<>(4);
+        for (int i = 0; i < names.size(); i++) {
+            parameters.put(names.get(i), values.get(i));
+        }
+        return parameters;
+    }
+
+    private static boolean isTemplateSegment(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    /**
+     * Result of a lookup: a handler with the extracted path parameters, a known path without a handler
+     * for the method, or no route at all.
+     */
+    public static final class Match {
+        static final Match NOT_FOUND = new Match(null, null, null, null);
+        private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler;
+        private final Map<String, String> pathParameters;
+        private final String allow;
+        private final String template;
+
+        private Match(RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler,
+                      Map<String, String> pathParameters, String allow, String template) {
+            this.handler = handler;
+            this.pathParameters = pathParameters;
+            this.allow = allow;
+            this.template = template;
+        }
+
+        public RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> getHandler() {
+            return handler;
+        }
+
+        /**
+         * Parameters taken from a concrete path, or null when the path was already a template.
+         */
+        public Map<String, String> getPathParameters() {
+            return pathParameters;
+        }
+
+        public boolean isPathFound() {
+            return allow != null;
+        }
+
+        /**
+         * Methods registered for the matched path, as an "Allow" header value.
+         */
+        public String getAllow() {
+            return allow;
+        }
+
+        /**
+         * The template the path matched, such as /tables/{tableId}.
+         */
+        public String getTemplate() {
+            return template;
+        }
+    }
+
+    public static final class Builder {
+        private final Node root = new Node();
+
+        private Builder() {
+        }
+
+        public Builder route(String method, String template,
+                             RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler) {
+            Node node = root;
+            List<String> parameterNames = new ArrayList<>();
+            for (String segment : template.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (isTemplateSegment(segment)) {
+                    String name = segment.substring(1, segment.length() - 1);
+                    if (node.parameter == null) {
+                        node.parameter = new Node();
+                    }
+                    node = node.parameter;
+                    parameterNames.add(name);
+                } else {
+                    node = node.literals.computeIfAbsent(segment, key -> new Node());
+                }
+            }
+            if (!node.handlers.isEmpty() && !node.parameterNames.equals(parameterNames)) {
+                throw new IllegalArgumentException("Conflicting parameter names for " + template);
+            }
+            if (node.handlers.putIfAbsent(method, handler) != null) {
+                throw new IllegalArgumentException("Duplicate route " + method + " " + template);
+            }
+            node.parameterNames = List.copyOf(parameterNames);
+            node.template = template;
+            return this;
+        }
+
+        public Router build() {
+            root.freeze();
+            return new Router(root);
+        }
+    }
+
+    private static final class Node {
+        private Map<String, Node> literals = new HashMap<>();
+        private Node parameter;
+        private Map<String, RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> handlers = new LinkedHashMap<>();
+        private List<String> parameterNames = List.of();
+        private String allow;
+        private String template;
+
+        private void freeze() {
+            literals = Map.copyOf(literals);
+            if (!handlers.isEmpty()) {
+                allow = String.join(", ", handlers.keySet()) + ", OPTIONS";
+            }
+            handlers = Collections.unmodifiableMap(new HashMap<>(handlers));
+            literals.values().forEach(Node::freeze);
+            if (parameter != null) {
+                parameter.freeze();
+            }
+        }
+    }
+}
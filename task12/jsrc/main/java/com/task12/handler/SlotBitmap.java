@@ -0,0 +1,109 @@
+package com.task12.handler;
+
+import com.task12.repository.ReservationRepository;
+
+import java.nio.ByteBuffer;
+import java.time.LocalTime;
+
+/**
+ * Occupancy of one table for one day as a bitset of 15-minute slots (96 bits, 12 bytes).
+ * A reservation occupies the half-open range [slotTimeStart, slotTimeEnd), widened to slot bounds.
+ */
+public final class SlotBitmap {
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int SIZE_BYTES = (SLOTS_PER_DAY + 7) / 8;
+    public static final SlotBitmap EMPTY = new SlotBitmap(0L, 0L);
+
+    private final long low;
+    private final long high;
+
+    private SlotBitmap(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Slots [from, to) occupied by a reservation, with the start rounded down and the end rounded up.
+     */
+    public record Range(int from, int to) {}
+
+    public static Range rangeOf(LocalTime start, LocalTime end) {
+        return rangeOfMinutes(ReservationRepository.minuteOfDay(start), ReservationRepository.endMinuteOfDay(end));
+    }
+
+    /**
+     * Same as {@link #rangeOf(LocalTime, LocalTime)} for minute-of-day bounds, as stored on reservations.
+     */
+    public static Range rangeOfMinutes(int startMinute, int endMinute) {
+        if (endMinute <= startMinute) {
+            throw new IllegalArgumentException("slotTimeEnd must be after slotTimeStart.");
+        }
+        return new Range(startMinute / SLOT_MINUTES, (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES);
+    }
+
+    public static SlotBitmap ofRange(LocalTime start, LocalTime end) {
+        return of(rangeOf(start, end));
+    }
+
+    public static SlotBitmap ofMinutes(int startMinute, int endMinute) {
+        if (startMinute < 0 || endMinute <= startMinute || endMinute > ReservationRepository.MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Slot [" + startMinute + ", " + endMinute + ") is not a range of one day.");
+        }
+        return of(rangeOfMinutes(startMinute, endMinute));
+    }
+
+    private static SlotBitmap of(Range range) {
+        return new SlotBitmap(rangeMask(range.from(), range.to(), 0), rangeMask(range.from(), range.to(), 64));
+    }
+
+    public static SlotBitmap fromBytes(ByteBuffer buffer) {
+        if (buffer == null) {
+            return EMPTY;
+        }
+        ByteBuffer bytes = buffer.duplicate();
+        long low = 0L;
+        long high = 0L;
+        for (int i = 0; bytes.hasRemaining() && i < SIZE_BYTES; i++) {
+            long b = bytes.get() & 0xFFL;
+            if (i < 8) {
+                low |= b << (8 * i);
+            } else {
+                high |= b << (8 * (i - 8));
+            }
+        }
+        return new SlotBitmap(low, high);
+    }
+
+    public ByteBuffer toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE_BYTES);
+        for (int i = 0; i < SIZE_BYTES; i++) {
+            long word = i < 8 ? low >>> (8 * i) : high >>> (8 * (i - 8));
+            buffer.put((byte) word);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public boolean intersects(SlotBitmap other) {
+        return (low & other.low) != 0 || (high & other.high) != 0;
+    }
+
+    public SlotBitmap or(SlotBitmap other) {
+        return new SlotBitmap(low | other.low, high | other.high);
+    }
+
+    public boolean isEmpty() {
+        return low == 0 && high == 0;
+    }
+
+    private static long rangeMask(int from, int to, int offset) {
+        int lo = Math.max(from - offset, 0);
+        int hi = Math.min(to - offset, 64);
+        if (lo >= hi) {
+            return 0L;
+        }
+        long upper = hi == 64 ? -1L : (1L << hi) - 1;
+        return upper & -(1L << lo);
+    }
+}
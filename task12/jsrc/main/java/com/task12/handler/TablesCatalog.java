@@ -0,0 +1,138 @@
+package com.task12.handler;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.task12.repository.TableRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Warm-container copy of the tables table. The catalog is small and read-mostly, so it is loaded
+ * in one read of the repository and served from memory until the TTL expires or a write invalidates it.
+ * Tables are kept ordered by id so pages can be cut from the list deterministically.
+ */
+public class TablesCatalog {
+    private static final String TTL_SECONDS = "tables_cache_ttl_seconds";
+    private static final long DEFAULT_TTL_SECONDS = 60;
+    private static final long MIN_RELOAD_INTERVAL_MILLIS = 1000;
+    private final TableRepository tableRepository;
+    private final long ttlMillis;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    private static final Comparator<String> ID_ORDER = Comparator.comparingInt(String::length)
+            .thenComparing(Comparator.naturalOrder());
+    private static final Comparator<Map<String, AttributeValue>> TABLE_ORDER = Comparator.comparing(
+            table -> table.get("id").getS(), ID_ORDER);
+
+    private record Snapshot(List<Map<String, AttributeValue>> tables, NavigableSet<Integer> numbers, long loadedAt) {}
+
+    public TablesCatalog(TableRepository tableRepository) {
+        this.tableRepository = tableRepository;
+        this.ttlMillis = Optional.ofNullable(System.getenv(TTL_SECONDS))
+                .map(Long::parseLong)
+                .orElse(DEFAULT_TTL_SECONDS) * 1000;
+    }
+
+    public List<Map<String, AttributeValue>> getTables() {
+        return current().tables();
+    }
+
+    public NavigableSet<Integer> getNumbers() {
+        return current().numbers();
+    }
+
+    /**
+     * A miss reloads the catalog (at most once per second) so a table created by another
+     * container is found without waiting for the TTL. Degraded invocations never reload a loaded catalog.
+     */
+    public boolean containsNumber(int number) {
+        Snapshot current = current();
+        if (current.numbers().contains(number)) {
+            return true;
+        }
+        if (System.currentTimeMillis() - current.loadedAt() < MIN_RELOAD_INTERVAL_MILLIS || InvocationMetrics.isDegraded()) {
+            return false;
+        }
+        return reload(current, true).numbers().contains(number);
+    }
+
+    /**
+     * Position of the first table ordered after the given id in a list returned by {@link #getTables()}.
+     */
+    public static int indexAfter(List<Map<String, AttributeValue>> tables, String id) {
+        int low = 0;
+        int high = tables.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ID_ORDER.compare(tables.get(middle).get("id").getS(), id) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && (System.currentTimeMillis() - current.loadedAt() < ttlMillis || InvocationMetrics.isDegraded())) {
+            return current;
+        }
+        return reload(current, false);
+    }
+
+    /**
+     * Only one thread loads at a time. When a reload is already running, an expired snapshot keeps
+     * being served to the other readers unless they need to wait for fresh data.
+     */
+    private Snapshot reload(Snapshot stale, boolean waitForFresh) {
+        if (stale == null || waitForFresh) {
+            reloadLock.lock();
+        } else if (!reloadLock.tryLock()) {
+            return stale;
+        }
+        try {
+            Snapshot current = snapshot;
+            if (current != null && current != stale) {
+                return current;
+            }
+            return load();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Snapshot load() {
+        long loadingGeneration = generation.get();
+        List<Map<String, AttributeValue>> tables = new ArrayList<>(tableRepository.findAll());
+        NavigableSet<Integer> numbers = new TreeSet<>();
+        for (Map<String, AttributeValue> item : tables) {
+            if (item.containsKey("number")) {
+                numbers.add(Integer.parseInt(item.get("number").getN()));
+            }
+        }
+
+        tables.sort(TABLE_ORDER);
+        Snapshot loaded = new Snapshot(Collections.unmodifiableList(tables), Collections.unmodifiableNavigableSet(numbers), System.currentTimeMillis());
+        // A write that happened while loading may be missing from this result: serve it once, don't keep it
+        if (generation.get() == loadingGeneration) {
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,87 @@
+package com.task12.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent calls of one request side by side: fork each of them, then join. The first
+ * failure cancels the calls still running and is what join throws, and closing the scope cancels
+ * whatever is left, so no call outlives the request. Forked calls run under the request's
+ * {@link Deadline} and report to its {@link InvocationMetrics}, on virtual threads when the runtime
+ * has them.
+ */
+public final class TaskScope implements AutoCloseable {
+    private static final ExecutorService EXECUTOR = newExecutor();
+    private final List<Future<?>> forks = new ArrayList<>();
+    private final BlockingQueue<Future<?>> completed = new LinkedBlockingQueue<>();
+
+    public <T> Supplier<T> fork(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(Deadline.propagate(InvocationMetrics.propagate(task))) {
+            @Override
+            protected void done() {
+                completed.add(this);
+            }
+        };
+        forks.add(future);
+        EXECUTOR.execute(future);
+        return () -> {
+            if (!future.isDone()) {
+                throw new IllegalStateException("Result read before join()");
+            }
+            try {
+                return future.get();
+            } catch (ExecutionException | InterruptedException e) {
+                throw new IllegalStateException("Result of a failed fork read", e);
+            }
+        };
+    }
+
+    /**
+     * Waits for every fork to succeed.
+     *
+     * @throws Exception what the first fork to fail threw, after cancelling the others
+     */
+    public void join() throws Exception {
+        for (int i = 0; i < forks.size(); i++) {
+            Future<?> future = completed.take();
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                close();
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw (Error) e.getCause();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        forks.forEach(future -> future.cancel(true));
+    }
+
+    /**
+     * Virtual threads need Java 21; the lambda targets Java 17, so they are looked up reflectively.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "task-scope");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
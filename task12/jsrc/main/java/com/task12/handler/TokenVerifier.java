@@ -0,0 +1,187 @@
+package com.task12.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Verifies Cognito idTokens locally: RS256 signature against the user pool JWKS, then exp, aud, iss
+ * and token_use. The key set is cached and refreshed periodically (or early on an unknown kid, at most
+ * once a minute), and verified tokens are kept in a bounded LRU until they expire, so checking a
+ * token costs no remote call in the steady state. JWKS_URI overrides the key set location, e.g. with
+ * a file: URI for local runs.
+ */
+public class TokenVerifier {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenVerifier.class);
+    private static final int MAX_VERIFIED_TOKENS = 1024;
+    private static final long MIN_REFRESH_INTERVAL_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int JWKS_TIMEOUT_MILLIS = 2000;
+    private final String issuer;
+    private final String audience;
+    private final URI jwksUri;
+    private final long refreshIntervalMillis;
+    private final Map<String, Identity> verifiedTokens = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Identity> eldest) {
+            return size() > MAX_VERIFIED_TOKENS;
+        }
+    };
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long keysLoadedAt;
+    private volatile long lastRefreshAttempt;
+
+    public record Identity(String subject, String email, long expiresAt) {}
+
+    public TokenVerifier() {
+        String region = System.getenv("REGION");
+        String userPoolId = System.getenv("COGNITO_ID");
+        this.issuer = "https://cognito-idp.%s.amazonaws.com/%s".formatted(region, userPoolId);
+        this.audience = System.getenv("CLIENT_ID");
+        this.jwksUri = URI.create(Optional.ofNullable(System.getenv("JWKS_URI")).orElse(issuer + "/.well-known/jwks.json"));
+        this.refreshIntervalMillis = Duration.ofSeconds(Long.parseLong(
+                Optional.ofNullable(System.getenv("jwks_refresh_seconds")).orElse("3600"))).toMillis();
+    }
+
+    /**
+     * Returns the identity of a valid token, or empty when the token is malformed, forged, expired or
+     * issued for another pool or client.
+     */
+    public Optional<Identity> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        long now = System.currentTimeMillis();
+        Identity cached;
+        synchronized (verifiedTokens) {
+            cached = verifiedTokens.get(token);
+        }
+        if (cached != null) {
+            return cached.expiresAt() > now ? Optional.of(cached) : Optional.empty();
+        }
+
+        try {
+            Identity identity = verifyUncached(token, now);
+            if (identity != null) {
+                synchronized (verifiedTokens) {
+                    verifiedTokens.put(token, identity);
+                }
+            }
+            return Optional.ofNullable(identity);
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            LOGGER.info("Rejected token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void invalidate() {
+        synchronized (verifiedTokens) {
+            verifiedTokens.clear();
+        }
+        keysLoadedAt = 0;
+        lastRefreshAttempt = 0;
+    }
+
+    private Identity verifyUncached(String token, long now) throws IOException, GeneralSecurityException {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = token.indexOf('.', headerEnd + 1);
+        if (headerEnd < 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new IllegalArgumentException("not a JWS compact token");
+        }
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        JsonNode header = JsonCodec.OBJECT_MAPPER.readTree(decoder.decode(token.substring(0, headerEnd)));
+        if (!"RS256".equals(header.path("alg").asText())) {
+            throw new IllegalArgumentException("unsupported alg " + header.path("alg").asText());
+        }
+
+        PublicKey key = findKey(header.path("kid").asText(), now);
+        if (key == null) {
+            throw new IllegalArgumentException("unknown kid " + header.path("kid").asText());
+        }
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initVerify(key);
+        signature.update(token.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII));
+        if (!signature.verify(decoder.decode(token.substring(payloadEnd + 1)))) {
+            throw new IllegalArgumentException("bad signature");
+        }
+
+        JsonNode claims = JsonCodec.OBJECT_MAPPER.readTree(decoder.decode(token.substring(headerEnd + 1, payloadEnd)));
+        long expiresAt = claims.path("exp").asLong() * 1000;
+        if (expiresAt <= now) {
+            return null;
+        }
+        if (!issuer.equals(claims.path("iss").asText())
+                || !claims.path("aud").asText().equals(audience)
+                || !"id".equals(claims.path("token_use").asText())) {
+            throw new IllegalArgumentException("token not issued for this user pool client");
+        }
+        return new Identity(claims.path("sub").asText(), claims.path("email").asText(null), expiresAt);
+    }
+
+    private PublicKey findKey(String kid, long now) throws IOException, GeneralSecurityException {
+        PublicKey key = keys.get(kid);
+        boolean stale = now - keysLoadedAt > refreshIntervalMillis;
+        boolean unknownKid = key == null && now - lastRefreshAttempt > MIN_REFRESH_INTERVAL_MILLIS;
+        if (stale || unknownKid) {
+            key = refreshKeys(now).get(kid);
+        }
+        return key;
+    }
+
+    private synchronized Map<String, PublicKey> refreshKeys(long now) throws IOException, GeneralSecurityException {
+        if (now - lastRefreshAttempt <= MIN_REFRESH_INTERVAL_MILLIS) {
+            return keys; // another thread just refreshed
+        }
+        lastRefreshAttempt = now;
+        try {
+            keys = loadKeys();
+            keysLoadedAt = now;
+            LOGGER.info("Loaded {} signing keys from {}", keys.size(), jwksUri);
+        } catch (IOException e) {
+            if (keys.isEmpty()) {
+                throw e;
+            }
+            LOGGER.warn("Could not refresh signing keys, keeping the previous set: {}", e.getMessage());
+        }
+        return keys;
+    }
+
+    private Map<String, PublicKey> loadKeys() throws IOException, GeneralSecurityException {
+        URLConnection connection = jwksUri.toURL().openConnection();
+        connection.setConnectTimeout(JWKS_TIMEOUT_MILLIS);
+        connection.setReadTimeout(JWKS_TIMEOUT_MILLIS);
+        JsonNode jwks;
+        try (InputStream in = connection.getInputStream()) {
+            jwks = JsonCodec.OBJECT_MAPPER.readTree(in);
+        }
+
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        Map<String, PublicKey> loaded = new HashMap<>();
+        for (JsonNode jwk : jwks.path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asText())) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+            loaded.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        return Map.copyOf(loaded);
+    }
+}
@@ -0,0 +1,129 @@
+package com.task12.repository;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.task12.handler.DynamoSupport;
+
+import java.util.Map;
+
+/**
+ * Entries in idempotency_table, keyed by id. expiresAt is the table's TTL attribute; since TTL
+ * deletes lazily, expired entries are also ignored on read.
+ */
+public class DynamoIdempotencyRepository extends DynamoSupport implements IdempotencyRepository {
+    private static final String TABLE_NAME = "idempotency_table";
+
+    @Override
+    public Entry find(String key, long now) {
+        Map<String, AttributeValue> item = getDynamoDbClient().getItem(new GetItemRequest()
+                .withTableName(getTableName(TABLE_NAME))
+                .withKey(Map.of("id", new AttributeValue(key)))
+                .withConsistentRead(true))
+                .getItem();
+        if (item == null || Long.parseLong(item.get("expiresAt").getN()) <= now) {
+            return null;
+        }
+        boolean completed = item.get("completed").getBOOL();
+        return new Entry(
+                item.get("fingerprint").getS(),
+                completed,
+                completed ? Integer.parseInt(item.get("statusCode").getN()) : 0,
+                completed && item.containsKey("body") ? item.get("body").getS() : null,
+                Long.parseLong(item.get("lockedUntil").getN()),
+                Long.parseLong(item.get("expiresAt").getN()));
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint, long lockedUntil, long expiresAt, long now) {
+        try {
+            getDynamoDbClient().putItem(new PutItemRequest()
+                    .withTableName(getTableName(TABLE_NAME))
+                    .withItem(Map.of(
+                            "id", new AttributeValue(key),
+                            "fingerprint", new AttributeValue(fingerprint),
+                            "completed", new AttributeValue().withBOOL(false),
+                            "lockedUntil", new AttributeValue().withN(String.valueOf(lockedUntil)),
+                            "expiresAt", new AttributeValue().withN(String.valueOf(expiresAt))))
+                    .withConditionExpression("attribute_not_exists(#id) or #expiresAt <= :now"
+                            + " or (#completed = :false and #lockedUntil <= :now)")
+                    .withExpressionAttributeNames(Map.of(
+                            "#id", "id",
+                            "#expiresAt", "expiresAt",
+                            "#completed", "completed",
+                            "#lockedUntil", "lockedUntil"))
+                    .withExpressionAttributeValues(Map.of(
+                            ":now", new AttributeValue().withN(String.valueOf(now)),
+                            ":false", new AttributeValue().withBOOL(false))));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String key, int statusCode, String body) {
+        UpdateItemRequest updateItemRequest = new UpdateItemRequest()
+                .withTableName(getTableName(TABLE_NAME))
+                .withKey(Map.of("id", new AttributeValue(key)))
+                .withConditionExpression("attribute_exists(#id)");
+        if (body == null) {
+            updateItemRequest
+                    .withUpdateExpression("SET #completed = :true, #statusCode = :statusCode")
+                    .withExpressionAttributeNames(Map.of("#id", "id", "#completed", "completed", "#statusCode", "statusCode"))
+                    .withExpressionAttributeValues(Map.of(
+                            ":true", new AttributeValue().withBOOL(true),
+                            ":statusCode", new AttributeValue().withN(String.valueOf(statusCode))));
+        } else {
+            updateItemRequest
+                    .withUpdateExpression("SET #completed = :true, #statusCode = :statusCode, #body = :body")
+                    .withExpressionAttributeNames(Map.of(
+                            "#id", "id", "#completed", "completed", "#statusCode", "statusCode", "#body", "body"))
+                    .withExpressionAttributeValues(Map.of(
+                            ":true", new AttributeValue().withBOOL(true),
+                            ":statusCode", new AttributeValue().withN(String.valueOf(statusCode)),
+                            ":body", new AttributeValue(body)));
+        }
+        try {
+            getDynamoDbClient().updateItem(updateItemRequest);
+        } catch (ConditionalCheckFailedException e) {
+            // Expired and removed by TTL while the attempt ran; the response is simply not replayable
+        }
+    }
+
+    @Override
+    public void lock(String key, long lockedUntil) {
+        try {
+            getDynamoDbClient().updateItem(new UpdateItemRequest()
+                    .withTableName(getTableName(TABLE_NAME))
+                    .withKey(Map.of("id", new AttributeValue(key)))
+                    .withUpdateExpression("SET #lockedUntil = :lockedUntil")
+                    .withConditionExpression("attribute_exists(#id) and #completed = :false")
+                    .withExpressionAttributeNames(Map.of("#id", "id", "#completed", "completed", "#lockedUntil", "lockedUntil"))
+                    .withExpressionAttributeValues(Map.of(
+                            ":lockedUntil", new AttributeValue().withN(String.valueOf(lockedUntil)),
+                            ":false", new AttributeValue().withBOOL(false))));
+        } catch (ConditionalCheckFailedException e) {
+            // Completed after all, or expired
+        }
+    }
+
+    @Override
+    public void release(String key, long lockedUntil) {
+        try {
+            getDynamoDbClient().deleteItem(new DeleteItemRequest()
+                    .withTableName(getTableName(TABLE_NAME))
+                    .withKey(Map.of("id", new AttributeValue(key)))
+                    .withConditionExpression("#completed = :false and #lockedUntil = :lockedUntil")
+                    .withExpressionAttributeNames(Map.of("#completed", "completed", "#lockedUntil", "lockedUntil"))
+                    .withExpressionAttributeValues(Map.of(
+                            ":false", new AttributeValue().withBOOL(false),
+                            ":lockedUntil", new AttributeValue().withN(String.valueOf(lockedUntil)))));
+        } catch (ConditionalCheckFailedException e) {
+            // Taken over by another attempt, or gone already
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.task12.repository;
+
+import com.amazonaws.services.dynamodbv2.model.AmazonDynamoDBException;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.Put;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import com.task12.handler.Deadline;
+import com.task12.handler.DynamoSupport;
+import com.task12.handler.SlotBitmap;
+import com.task12.handler.TaskScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class DynamoReservationRepository extends DynamoSupport implements ReservationRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DynamoReservationRepository.class);
+    private static final String RESERVATIONS_TABLE = "reservations_table";
+    private static final String AVAILABILITY_TABLE = "availability_table";
+    public static final String RESERVATIONS_BY_TABLE_INDEX = "tableNumber-slotKey-index";
+    public static final String RESERVATIONS_BY_START_INDEX = "tableNumber-startAt-index";
+    private static final int MAX_BOOKING_ATTEMPTS = 3;
+    private static final int BATCH_GET_LIMIT = 100;
+    // A transaction holds at most 100 actions: the availability update and the reservation puts
+    private static final int PUTS_PER_TRANSACTION = 99;
+    private static final String NOT_MADE = "Reservation was not made, please retry.";
+    private static final String OUTCOME_UNKNOWN =
+            "Reservation may or may not have been made; check the table's reservations before retrying.";
+    // Item of availability_table written once reservations_migration has completed
+    private static final String MIGRATED_ID = "reservations_migration";
+    private static volatile boolean migrated;
+
+    /**
+     * The (tableNumber, date) availability item as read; exists is false when no booking has created
+     * it yet, in which case reservedSlots were rebuilt from the reservations themselves.
+     */
+    private record DynamoAvailability(int tableNumber, String date, boolean exists, long version,
+                                      SlotBitmap reservedSlots) implements Availability {}
+
+    @Override
+    public Availability findAvailability(int tableNumber, String date) {
+        Map<String, AttributeValue> availability = getDynamoDbClient().getItem(new GetItemRequest()
+                .withTableName(getTableName(AVAILABILITY_TABLE))
+                .withKey(Map.of("id", new AttributeValue(availabilityId(tableNumber, date))))
+                .withConsistentRead(true))
+                .getItem();
+        if (availability == null) {
+            return new DynamoAvailability(tableNumber, date, false, 0, loadReservedSlots(tableNumber, date));
+        }
+        return toAvailability(tableNumber, date, availability);
+    }
+
+    private static DynamoAvailability toAvailability(int tableNumber, String date, Map<String, AttributeValue> availability) {
+        return new DynamoAvailability(tableNumber, date, true,
+                Long.parseLong(availability.get("version").getN()),
+                SlotBitmap.fromBytes(availability.get("slots").getB()));
+    }
+
+    /**
+     * Marks the requested slots as taken in the (tableNumber, date) availability item and writes the
+     * reservation in one transaction. The availability update is conditional on the version that was
+     * read, so concurrent bookings of the same table and date cannot both succeed.
+     */
+    @Override
+    public void book(Availability availability, LocalTime slotTimeStart, LocalTime slotTimeEnd, Map<String, AttributeValue> reservation) {
+        SlotBitmap requestedSlots = SlotBitmap.ofRange(slotTimeStart, slotTimeEnd);
+        int tableNumber = availability.tableNumber();
+        String date = availability.date();
+
+        DynamoAvailability current = (DynamoAvailability) availability;
+        for (int attempt = 1; ; attempt++) {
+            if (attempt > 1) {
+                current = (DynamoAvailability) findAvailability(tableNumber, date);
+            }
+            if (current.reservedSlots().intersects(requestedSlots)) {
+                throw new IllegalArgumentException("Conflicting reservation exists for the given table and time slot.");
+            }
+
+            try {
+                getDynamoDbClient().transactWriteItems(new TransactWriteItemsRequest().withTransactItems(
+                        new TransactWriteItem().withUpdate(availabilityUpdate(current, current.reservedSlots().or(requestedSlots))),
+                        reservationPut(reservation)));
+                return;
+            } catch (TransactionCanceledException e) {
+                LOGGER.info("Availability of table {} on {} changed concurrently, attempt {}", tableNumber, date, attempt);
+                if (attempt >= MAX_BOOKING_ATTEMPTS) {
+                    throw new IllegalStateException("Table availability is changing concurrently, please retry.", e);
+                }
+            } catch (RuntimeException e) {
+                if (!wasStored(reservation)) {
+                    throw e;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Books a batch with one BatchGetItem read of every (tableNumber, date) it touches. Conflicts, with
+     * existing reservations and within the batch, are then all settled in memory before anything is
+     * written, and each day of a table is written like {@link #book} does: the availability update and
+     * its reservations in one transaction, conditional on the version read. Days are written side by
+     * side; a day that races with concurrent bookings is read again and only its own bookings retried,
+     * and a day whose writes fail otherwise reports the failure on the bookings it could not store.
+     */
+    @Override
+    public List<String> bookAll(List<Booking> bookings) {
+        String[] errors = new String[bookings.size()];
+        SlotBitmap[] requestedSlots = new SlotBitmap[bookings.size()];
+        Map<String, List<Integer>> bookingsByDay = new LinkedHashMap<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            try {
+                requestedSlots[i] = SlotBitmap.ofRange(booking.slotTimeStart(), booking.slotTimeEnd());
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+                continue;
+            }
+            bookingsByDay.computeIfAbsent(availabilityId(booking.tableNumber(), booking.date()), key -> new ArrayList<>()).add(i);
+        }
+
+        Map<String, DynamoAvailability> availabilities = findAvailabilities(bookingsByDay, bookings);
+        try (TaskScope scope = new TaskScope()) {
+            for (Map.Entry<String, List<Integer>> day : bookingsByDay.entrySet()) {
+                scope.fork(() -> {
+                    bookDay(availabilities.get(day.getKey()), day.getValue(), bookings, requestedSlots, errors);
+                    return null;
+                });
+            }
+            join(scope);
+        }
+        return Arrays.asList(errors);
+    }
+
+    private void bookDay(DynamoAvailability current, List<Integer> pending, List<Booking> bookings,
+                         SlotBitmap[] requestedSlots, String[] errors) {
+        // Cleared as each booking is stored, so whatever is left when a write fails reports it
+        pending.forEach(index -> errors[index] = NOT_MADE);
+        try {
+            writeDay(current, pending, bookings, requestedSlots, errors);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Booking table {} on {} failed: {}", current.tableNumber(), current.date(), e.getMessage(), e);
+        }
+    }
+
+    private void writeDay(DynamoAvailability current, List<Integer> pending, List<Booking> bookings,
+                          SlotBitmap[] requestedSlots, String[] errors) {
+        for (int attempt = 1; ; attempt++) {
+            if (attempt > 1) {
+                current = (DynamoAvailability) findAvailability(current.tableNumber(), current.date());
+            }
+            List<Integer> accepted = new ArrayList<>(pending.size());
+            SlotBitmap reservedSlots = current.reservedSlots();
+            for (int index : pending) {
+                if (current.reservedSlots().intersects(requestedSlots[index])) {
+                    errors[index] = "Conflicting reservation exists for the given table and time slot.";
+                } else if (reservedSlots.intersects(requestedSlots[index])) {
+                    errors[index] = "Conflicts with an earlier reservation of the batch.";
+                } else {
+                    reservedSlots = reservedSlots.or(requestedSlots[index]);
+                    accepted.add(index);
+                }
+            }
+
+            int written = 0;
+            try {
+                while (written < accepted.size()) {
+                    List<Integer> chunk = accepted.subList(written, Math.min(written + PUTS_PER_TRANSACTION, accepted.size()));
+                    SlotBitmap slots = current.reservedSlots();
+                    List<TransactWriteItem> transactItems = new ArrayList<>(chunk.size() + 1);
+                    for (int index : chunk) {
+                        slots = slots.or(requestedSlots[index]);
+                        transactItems.add(reservationPut(bookings.get(index).reservation()));
+                    }
+                    transactItems.add(new TransactWriteItem().withUpdate(availabilityUpdate(current, slots)));
+                    try {
+                        getDynamoDbClient().transactWriteItems(new TransactWriteItemsRequest().withTransactItems(transactItems));
+                    } catch (TransactionCanceledException e) {
+                        throw e;
+                    } catch (RuntimeException e) {
+                        if (!wasWritten(bookings.get(chunk.get(0)).reservation(), chunk, errors)) {
+                            throw e;
+                        }
+                    }
+                    chunk.forEach(index -> errors[index] = null);
+                    current = new DynamoAvailability(current.tableNumber(), current.date(), true, current.version() + 1, slots);
+                    written += chunk.size();
+                }
+                return;
+            } catch (TransactionCanceledException e) {
+                LOGGER.info("Availability of table {} on {} changed concurrently, attempt {}", current.tableNumber(), current.date(), attempt);
+                pending = accepted.subList(written, accepted.size());
+                if (attempt >= MAX_BOOKING_ATTEMPTS) {
+                    pending.forEach(index -> errors[index] = "Table availability is changing concurrently, please retry.");
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@link #wasStored} for the first reservation of a transaction, whose puts are all stored or none is.
+     * When the check fails, the bookings of the transaction say their outcome is unknown.
+     */
+    private boolean wasWritten(Map<String, AttributeValue> reservation, List<Integer> chunk, String[] errors) {
+        try {
+            return wasStored(reservation);
+        } catch (OutcomeUnknownException e) {
+            chunk.forEach(index -> errors[index] = e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Whether a reservation whose transaction failed without being cancelled was stored anyway, as one
+     * that timed out may have been. The check may use part of the time kept back for the response, as
+     * reporting a stored booking as failed would have it booked twice on retry.
+     *
+     * @throws OutcomeUnknownException when the check fails too
+     */
+    private boolean wasStored(Map<String, AttributeValue> reservation) {
+        try (Deadline.Scope ignored = Deadline.reserve()) {
+            return getDynamoDbClient().getItem(new GetItemRequest()
+                    .withTableName(getTableName(RESERVATIONS_TABLE))
+                    .withKey(Map.of("id", reservation.get("id")))
+                    .withConsistentRead(true))
+                    .getItem() != null;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not tell whether reservation {} was stored: {}", reservation.get("id").getS(), e.getMessage());
+            throw new OutcomeUnknownException(OUTCOME_UNKNOWN, e);
+        }
+    }
+
+    /**
+     * The availability of every day, read consistently with BatchGetItem; days that have no availability
+     * item yet are rebuilt from their reservations side by side.
+     */
+    private Map<String, DynamoAvailability> findAvailabilities(Map<String, List<Integer>> bookingsByDay, List<Booking> bookings) {
+        String tableName = getTableName(AVAILABILITY_TABLE);
+        List<String> ids = new ArrayList<>(bookingsByDay.keySet());
+        Map<String, Map<String, AttributeValue>> items = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += BATCH_GET_LIMIT) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (String id : ids.subList(from, Math.min(from + BATCH_GET_LIMIT, ids.size()))) {
+                keys.add(Map.of("id", new AttributeValue(id)));
+            }
+            Map<String, KeysAndAttributes> requestItems = Map.of(tableName,
+                    new KeysAndAttributes().withKeys(keys).withConsistentRead(true));
+            for (int attempt = 0; ; attempt++) {
+                BatchGetItemResult result = getDynamoDbClient().batchGetItem(new BatchGetItemRequest().withRequestItems(requestItems));
+                result.getResponses().getOrDefault(tableName, List.of())
+                        .forEach(item -> items.put(item.get("id").getS(), item));
+                Map<String, KeysAndAttributes> unprocessed = result.getUnprocessedKeys();
+                if (unprocessed == null || unprocessed.isEmpty()) {
+                    break;
+                }
+                if (!backOffUnprocessed(attempt)) {
+                    throw new IllegalStateException("Table availability could not be read, please retry.");
+                }
+                requestItems = unprocessed;
+            }
+        }
+
+        Map<String, DynamoAvailability> availabilities = new ConcurrentHashMap<>();
+        try (TaskScope scope = new TaskScope()) {
+            for (Map.Entry<String, List<Integer>> day : bookingsByDay.entrySet()) {
+                Booking booking = bookings.get(day.getValue().get(0));
+                Map<String, AttributeValue> item = items.get(day.getKey());
+                if (item != null) {
+                    availabilities.put(day.getKey(), toAvailability(booking.tableNumber(), booking.date(), item));
+                } else {
+                    scope.fork(() -> availabilities.put(day.getKey(), new DynamoAvailability(booking.tableNumber(), booking.date(),
+                            false, 0, loadReservedSlots(booking.tableNumber(), booking.date()))));
+                }
+            }
+            join(scope);
+        }
+        return availabilities;
+    }
+
+    private static void join(TaskScope scope) {
+        try {
+            scope.join();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sets the slots of the availability item that was read, conditional on it not having changed since.
+     */
+    private static Update availabilityUpdate(DynamoAvailability current, SlotBitmap slots) {
+        Map<String, AttributeValue> expressionAttributeValues = new HashMap<>();
+        expressionAttributeValues.put(":slots", new AttributeValue().withB(slots.toBytes()));
+        expressionAttributeValues.put(":nextVersion", new AttributeValue().withN(String.valueOf(current.version() + 1)));
+        if (current.exists()) {
+            expressionAttributeValues.put(":version", new AttributeValue().withN(String.valueOf(current.version())));
+        }
+        return new Update()
+                .withTableName(getTableName(AVAILABILITY_TABLE))
+                .withKey(Map.of("id", new AttributeValue(availabilityId(current.tableNumber(), current.date()))))
+                .withUpdateExpression("SET #slots = :slots, #version = :nextVersion")
+                .withConditionExpression(current.exists() ? "#version = :version" : "attribute_not_exists(#id)")
+                .withExpressionAttributeNames(current.exists()
+                        ? Map.of("#slots", "slots", "#version", "version")
+                        : Map.of("#id", "id", "#slots", "slots", "#version", "version"))
+                .withExpressionAttributeValues(expressionAttributeValues);
+    }
+
+    private static TransactWriteItem reservationPut(Map<String, AttributeValue> reservation) {
+        return new TransactWriteItem().withPut(new Put()
+                .withTableName(getTableName(RESERVATIONS_TABLE))
+                .withItem(reservation)
+                .withConditionExpression("attribute_not_exists(id)"));
+    }
+
+    @Override
+    public ItemPage findByTable(int tableNumber, Map<String, AttributeValue> exclusiveStartKey, int limit) {
+        QueryResult queryResult = getDynamoDbClient().query(new QueryRequest()
+                .withTableName(getTableName(RESERVATIONS_TABLE))
+                .withIndexName(RESERVATIONS_BY_TABLE_INDEX)
+                .withKeyConditionExpression("#tableNumber = :tableNumber")
+                .withExpressionAttributeNames(Map.of("#tableNumber", "tableNumber"))
+                .withExpressionAttributeValues(Map.of(":tableNumber", new AttributeValue().withN(String.valueOf(tableNumber))))
+                .withExclusiveStartKey(exclusiveStartKey)
+                .withLimit(limit));
+        return new ItemPage(queryResult.getItems(), queryResult.getLastEvaluatedKey());
+    }
+
+    public static String availabilityId(int tableNumber, String date) {
+        return tableNumber + "#" + date;
+    }
+
+    /**
+     * Records that reservations_migration has given every reservation its slotKey and startAt, after
+     * which days are rebuilt from the indexes alone.
+     */
+    public void markMigrated() {
+        getDynamoDbClient().putItem(new PutItemRequest()
+                .withTableName(getTableName(AVAILABILITY_TABLE))
+                .withItem(Map.of(
+                        "id", new AttributeValue(MIGRATED_ID),
+                        "migratedAt", new AttributeValue().withN(String.valueOf(System.currentTimeMillis() / 1000)))));
+    }
+
+    private boolean isMigrated() {
+        if (!migrated) {
+            migrated = getDynamoDbClient().getItem(new GetItemRequest()
+                    .withTableName(getTableName(AVAILABILITY_TABLE))
+                    .withKey(Map.of("id", new AttributeValue(MIGRATED_ID)))
+                    .withConsistentRead(true))
+                    .getItem() != null;
+        }
+        return migrated;
+    }
+
+    /**
+     * Rebuilds the occupancy of a day from reservations made before availability items existed: the
+     * migrated ones as one integer range of startAt on the by-start index, those written with a slotKey
+     * but no startAt from their HH:mm strings on the by-table index, and, until reservations_migration
+     * has completed, those without even a slotKey with a Scan, as they are on no index.
+     */
+    private SlotBitmap loadReservedSlots(int tableNumber, String date) {
+        try {
+            long dayStart = ReservationRepository.startAt(date, 0);
+            AttributeValue tableNumberValue = new AttributeValue().withN(String.valueOf(tableNumber));
+            SlotBitmap reservedSlots = SlotBitmap.EMPTY;
+            for (Map<String, AttributeValue> reservation : queryAll(new QueryRequest()
+                    .withTableName(getTableName(RESERVATIONS_TABLE))
+                    .withIndexName(RESERVATIONS_BY_START_INDEX)
+                    .withKeyConditionExpression("#tableNumber = :tableNumber and #startAt between :dayStart and :dayEnd")
+                    .withProjectionExpression("#id, #startMinute, #endMinute")
+                    .withExpressionAttributeNames(Map.of(
+                            "#id", "id",
+                            "#tableNumber", "tableNumber",
+                            "#startAt", "startAt",
+                            "#startMinute", "startMinute",
+                            "#endMinute", "endMinute"))
+                    .withExpressionAttributeValues(Map.of(
+                            ":tableNumber", tableNumberValue,
+                            ":dayStart", new AttributeValue().withN(String.valueOf(dayStart)),
+                            ":dayEnd", new AttributeValue().withN(String.valueOf(dayStart + MINUTES_PER_DAY - 1)))))) {
+                int startMinute = Integer.parseInt(reservation.get("startMinute").getN());
+                int endMinute = Integer.parseInt(reservation.get("endMinute").getN());
+                reservedSlots = reservedSlots.or(storedSlots(reservation.get("id").getS(), startMinute, endMinute));
+            }
+
+            for (Map<String, AttributeValue> reservation : queryAll(new QueryRequest()
+                    .withTableName(getTableName(RESERVATIONS_TABLE))
+                    .withIndexName(RESERVATIONS_BY_TABLE_INDEX)
+                    .withKeyConditionExpression("#tableNumber = :tableNumber and begins_with(#slotKey, :day)")
+                    .withFilterExpression("attribute_not_exists(#startAt)")
+                    .withProjectionExpression("#id, #slotTimeStart, #slotTimeEnd")
+                    .withExpressionAttributeNames(Map.of(
+                            "#id", "id",
+                            "#tableNumber", "tableNumber",
+                            "#slotKey", "slotKey",
+                            "#startAt", "startAt",
+                            "#slotTimeStart", "slotTimeStart",
+                            "#slotTimeEnd", "slotTimeEnd"))
+                    .withExpressionAttributeValues(Map.of(
+                            ":tableNumber", tableNumberValue,
+                            ":day", new AttributeValue(ReservationRepository.slotKey(date, "")))))) {
+                reservedSlots = reservedSlots.or(unmigratedSlots(reservation));
+            }
+
+            if (!isMigrated()) {
+                ScanRequest scanRequest = new ScanRequest()
+                        .withTableName(getTableName(RESERVATIONS_TABLE))
+                        .withFilterExpression("#tableNumber = :tableNumber and #date = :date and attribute_not_exists(#slotKey)")
+                        .withProjectionExpression("#id, #slotTimeStart, #slotTimeEnd")
+                        .withExpressionAttributeNames(Map.of(
+                                "#id", "id",
+                                "#tableNumber", "tableNumber",
+                                "#date", "date",
+                                "#slotKey", "slotKey",
+                                "#slotTimeStart", "slotTimeStart",
+                                "#slotTimeEnd", "slotTimeEnd"))
+                        .withExpressionAttributeValues(Map.of(
+                                ":tableNumber", tableNumberValue,
+                                ":date", new AttributeValue(date)));
+                Map<String, AttributeValue> lastEvaluatedKey = null;
+                do {
+                    ScanResult scanResult = getDynamoDbClient().scan(scanRequest.withExclusiveStartKey(lastEvaluatedKey));
+                    for (Map<String, AttributeValue> reservation : scanResult.getItems()) {
+                        reservedSlots = reservedSlots.or(unmigratedSlots(reservation));
+                    }
+                    lastEvaluatedKey = scanResult.getLastEvaluatedKey();
+                } while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty());
+            }
+            return reservedSlots;
+        } catch (AmazonDynamoDBException e) {
+            throw new RuntimeException("Failed to load existing reservations", e);
+        }
+    }
+
+    private List<Map<String, AttributeValue>> queryAll(QueryRequest queryRequest) {
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        do {
+            QueryResult queryResult = getDynamoDbClient().query(queryRequest.withExclusiveStartKey(lastEvaluatedKey));
+            items.addAll(queryResult.getItems());
+            lastEvaluatedKey = queryResult.getLastEvaluatedKey();
+        } while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty());
+        return items;
+    }
+
+    private static SlotBitmap unmigratedSlots(Map<String, AttributeValue> reservation) {
+        return storedSlots(reservation.get("id").getS(),
+                ReservationRepository.minuteOfDay(reservation.get("slotTimeStart").getS()),
+                ReservationRepository.endMinuteOfDay(reservation.get("slotTimeEnd").getS()));
+    }
+
+    /**
+     * The slots of a stored reservation. One that is not a range of its day, as reservations made before
+     * slotTimeEnd had to follow slotTimeStart may be, is counted to the end of the day or, when even its
+     * start is off, left out; failing on it would make its table unbookable on that date.
+     */
+    private static SlotBitmap storedSlots(String id, int startMinute, int endMinute) {
+        if (startMinute < 0 || startMinute >= MINUTES_PER_DAY) {
+            LOGGER.warn("Reservation {} starts at minute {}, outside of its day; leaving it out", id, startMinute);
+            return SlotBitmap.EMPTY;
+        }
+        int occupiedEndMinute = ReservationRepository.occupiedEndMinute(startMinute, endMinute);
+        if (occupiedEndMinute != endMinute) {
+            LOGGER.warn("Reservation {} ends at minute {}, not after its start {}; counting it to the end of the day",
+                    id, endMinute, startMinute);
+        }
+        return SlotBitmap.ofMinutes(startMinute, occupiedEndMinute);
+    }
+}
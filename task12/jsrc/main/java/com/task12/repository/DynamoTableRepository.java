@@ -0,0 +1,99 @@
+package com.task12.repository;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.task12.handler.DynamoSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class DynamoTableRepository extends DynamoSupport implements TableRepository {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DynamoTableRepository.class);
+    private static final String TABLE_NAME = "tables_table";
+    private static final int BATCH_WRITE_LIMIT = 25;
+
+    @Override
+    public List<Map<String, AttributeValue>> findAll() {
+        List<Map<String, AttributeValue>> tables = new ArrayList<>();
+        ScanRequest scanRequest = new ScanRequest().withTableName(getTableName(TABLE_NAME));
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        do {
+            ScanResult scanResult = getDynamoDbClient().scan(scanRequest.withExclusiveStartKey(lastEvaluatedKey));
+            tables.addAll(scanResult.getItems());
+            lastEvaluatedKey = scanResult.getLastEvaluatedKey();
+        } while (lastEvaluatedKey != null && !lastEvaluatedKey.isEmpty());
+        return tables;
+    }
+
+    @Override
+    public Map<String, AttributeValue> findById(String id) {
+        return getDynamoDbClient().getItem(getTableName(TABLE_NAME), Map.of("id", new AttributeValue(id))).getItem();
+    }
+
+    @Override
+    public void save(Map<String, AttributeValue> table) {
+        getDynamoDbClient().putItem(new PutItemRequest()
+                .withTableName(getTableName(TABLE_NAME))
+                .withItem(table));
+    }
+
+    /**
+     * Writes BatchWriteItem chunks of 25 puts one after the other. Items DynamoDB leaves unprocessed
+     * are resent with backoff; once that gives up, or a call fails, the rest of the tables are not tried
+     * either. Puts overwrite, so tables reported unwritten that were stored after all are safe to resend.
+     */
+    @Override
+    public List<Map<String, AttributeValue>> saveAll(List<Map<String, AttributeValue>> tables) {
+        String tableName = getTableName(TABLE_NAME);
+        List<Map<String, AttributeValue>> unwritten = new ArrayList<>();
+        for (int from = 0; from < tables.size(); from += BATCH_WRITE_LIMIT) {
+            List<Map<String, AttributeValue>> chunk = tables.subList(from, Math.min(from + BATCH_WRITE_LIMIT, tables.size()));
+            if (!unwritten.isEmpty()) {
+                unwritten.addAll(chunk);
+                continue;
+            }
+            List<WriteRequest> writes = new ArrayList<>(chunk.size());
+            for (Map<String, AttributeValue> table : chunk) {
+                writes.add(new WriteRequest().withPutRequest(new PutRequest().withItem(table)));
+            }
+            Map<String, List<WriteRequest>> requestItems = Map.of(tableName, writes);
+            for (int attempt = 0; ; attempt++) {
+                Map<String, List<WriteRequest>> unprocessed;
+                try {
+                    unprocessed = getDynamoDbClient()
+                            .batchWriteItem(new BatchWriteItemRequest().withRequestItems(requestItems))
+                            .getUnprocessedItems();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Writing tables failed: {}", e.getMessage(), e);
+                    unwritten.addAll(items(requestItems.get(tableName)));
+                    break;
+                }
+                if (unprocessed == null || unprocessed.isEmpty()) {
+                    break;
+                }
+                if (!backOffUnprocessed(attempt)) {
+                    unwritten.addAll(items(unprocessed.getOrDefault(tableName, List.of())));
+                    break;
+                }
+                requestItems = unprocessed;
+            }
+        }
+        return unwritten;
+    }
+
+    private static List<Map<String, AttributeValue>> items(List<WriteRequest> writes) {
+        List<Map<String, AttributeValue>> items = new ArrayList<>(writes.size());
+        for (WriteRequest write : writes) {
+            items.add(write.getPutRequest().getItem());
+        }
+        return items;
+    }
+}
@@ -0,0 +1,42 @@
+package com.task12.repository;
+
+/**
+ * Requests made with an Idempotency-Key. A key is claimed while its first attempt runs and then holds
+ * that attempt's response until it expires. Times are epoch seconds.
+ */
+public interface IdempotencyRepository {
+
+    /**
+     * @param fingerprint digest of the request body the key was first used with
+     * @param lockedUntil while not completed, when the claim of a crashed attempt may be taken over
+     */
+    record Entry(String fingerprint, boolean completed, int statusCode, String body, long lockedUntil, long expiresAt) {}
+
+    /**
+     * @return the entry, or null when the key is unknown or expired
+     */
+    Entry find(String key, long now);
+
+    /**
+     * Creates an in-progress entry if the key is unknown, expired, or held by an attempt whose lock ran out.
+     *
+     * @return false when another attempt holds the key or it has a response
+     */
+    boolean claim(String key, String fingerprint, long lockedUntil, long expiresAt, long now);
+
+    void complete(String key, int statusCode, String body);
+
+    /**
+     * Keeps an in-progress claim from being taken over until lockedUntil. For an attempt that took effect
+     * but whose response could not be stored: its key must never run the request again.
+     */
+    void lock(String key, long lockedUntil);
+
+    /**
+     * Drops a claim whose attempt failed, so a retry runs the request again; unless the claim is no longer
+     * that attempt's, as another one took it over once its lock ran out, or it was locked or completed.
+     *
+     * @param lockedUntil the lockedUntil the attempt claimed the key with
+     */
+    void release(String key, long lockedUntil);
+}
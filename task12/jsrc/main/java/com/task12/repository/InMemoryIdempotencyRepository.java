@@ -0,0 +1,43 @@
+package com.task12.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Idempotency entries held in process memory; expired entries are replaced when their key is claimed again.
+ */
+public class InMemoryIdempotencyRepository implements IdempotencyRepository {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Entry find(String key, long now) {
+        Entry entry = entries.get(key);
+        return entry == null || entry.expiresAt() <= now ? null : entry;
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint, long lockedUntil, long expiresAt, long now) {
+        Entry claimed = new Entry(fingerprint, false, 0, null, lockedUntil, expiresAt);
+        Entry result = entries.compute(key, (k, current) -> current == null || current.expiresAt() <= now
+                || (!current.completed() && current.lockedUntil() <= now) ? claimed : current);
+        return result == claimed;
+    }
+
+    @Override
+    public void complete(String key, int statusCode, String body) {
+        entries.computeIfPresent(key, (k, current) ->
+                new Entry(current.fingerprint(), true, statusCode, body, current.lockedUntil(), current.expiresAt()));
+    }
+
+    @Override
+    public void lock(String key, long lockedUntil) {
+        entries.computeIfPresent(key, (k, current) -> current.completed() ? current
+                : new Entry(current.fingerprint(), false, 0, null, lockedUntil, current.expiresAt()));
+    }
+
+    @Override
+    public void release(String key, long lockedUntil) {
+        entries.computeIfPresent(key, (k, current) ->
+                !current.completed() && current.lockedUntil() == lockedUntil ? null : current);
+    }
+}
@@ -0,0 +1,106 @@
+package com.task12.repository;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.task12.handler.SlotBitmap;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Reservations held in process memory. Each table keeps its reservations in a concurrent sorted map
+ * ordered like the by-table index (slotKey, then id), so pages are range reads. Each (table, date)
+ * keeps its booked slot ranges in an interval map keyed by start slot; ranges never overlap, so a
+ * conflict check only needs the neighbours around the requested start, which is O(log n).
+ */
+public class InMemoryReservationRepository implements ReservationRepository {
+    private static final Comparator<IndexKey> INDEX_ORDER = Comparator.comparing(IndexKey::slotKey)
+            .thenComparing(IndexKey::id);
+    private final ConcurrentMap<Integer, ConcurrentSkipListMap<IndexKey, Map<String, AttributeValue>>> reservationsByTable =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DayBook> dayBooks = new ConcurrentHashMap<>();
+
+    private record IndexKey(String slotKey, String id) {}
+
+    /**
+     * The day book itself is checked under its lock when booking, so there is nothing to read ahead.
+     */
+    private record DayAvailability(int tableNumber, String date) implements Availability {}
+
+    @Override
+    public Availability findAvailability(int tableNumber, String date) {
+        return new DayAvailability(tableNumber, date);
+    }
+
+    @Override
+    public void book(Availability availability, LocalTime slotTimeStart, LocalTime slotTimeEnd, Map<String, AttributeValue> reservation) {
+        SlotBitmap.Range range = SlotBitmap.rangeOf(slotTimeStart, slotTimeEnd);
+        IndexKey indexKey = new IndexKey(reservation.get("slotKey").getS(), reservation.get("id").getS());
+        Map<String, AttributeValue> stored = Map.copyOf(reservation);
+        int tableNumber = availability.tableNumber();
+        DayBook dayBook = dayBooks.computeIfAbsent(tableNumber + "#" + availability.date(), key -> new DayBook());
+        synchronized (dayBook) {
+            if (dayBook.overlaps(range)) {
+                throw new IllegalArgumentException("Conflicting reservation exists for the given table and time slot.");
+            }
+            dayBook.add(range);
+            reservationsByTable
+                    .computeIfAbsent(tableNumber, key -> new ConcurrentSkipListMap<>(INDEX_ORDER))
+                    .put(indexKey, stored);
+        }
+    }
+
+    @Override
+    public ItemPage findByTable(int tableNumber, Map<String, AttributeValue> exclusiveStartKey, int limit) {
+        NavigableMap<IndexKey, Map<String, AttributeValue>> reservations = reservationsByTable.get(tableNumber);
+        if (reservations == null) {
+            return new ItemPage(List.of(), null);
+        }
+        if (exclusiveStartKey != null) {
+            reservations = reservations.tailMap(
+                    new IndexKey(exclusiveStartKey.get("slotKey").getS(), exclusiveStartKey.get("id").getS()), false);
+        }
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>(Math.min(limit, 64));
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        for (Map<String, AttributeValue> reservation : reservations.values()) {
+            if (items.size() == limit) {
+                Map<String, AttributeValue> last = items.get(items.size() - 1);
+                lastEvaluatedKey = Map.of(
+                        "id", last.get("id"),
+                        "tableNumber", last.get("tableNumber"),
+                        "slotKey", last.get("slotKey"));
+                break;
+            }
+            items.add(reservation);
+        }
+        return new ItemPage(items, lastEvaluatedKey);
+    }
+
+    /**
+     * Booked, non-overlapping slot ranges of one table on one day: start slot to end slot (exclusive).
+     */
+    private static final class DayBook {
+        private final TreeMap<Integer, Integer> ranges = new TreeMap<>();
+
+        boolean overlaps(SlotBitmap.Range range) {
+            Map.Entry<Integer, Integer> before = ranges.floorEntry(range.from());
+            if (before != null && before.getValue() > range.from()) {
+                return true;
+            }
+            Integer after = ranges.ceilingKey(range.from());
+            return after != null && after < range.to();
+        }
+
+        void add(SlotBitmap.Range range) {
+            ranges.put(range.from(), range.to());
+        }
+    }
+}
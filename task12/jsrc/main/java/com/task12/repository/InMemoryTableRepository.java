@@ -0,0 +1,36 @@
+package com.task12.repository;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tables held in process memory. Nothing is persisted; this backs single-node and load-test runs.
+ */
+public class InMemoryTableRepository implements TableRepository {
+    private final Map<String, Map<String, AttributeValue>> tablesById = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Map<String, AttributeValue>> findAll() {
+        return new ArrayList<>(tablesById.values());
+    }
+
+    @Override
+    public Map<String, AttributeValue> findById(String id) {
+        return tablesById.get(id);
+    }
+
+    @Override
+    public void save(Map<String, AttributeValue> table) {
+        tablesById.put(table.get("id").getS(), Map.copyOf(table));
+    }
+
+    @Override
+    public List<Map<String, AttributeValue>> saveAll(List<Map<String, AttributeValue>> tables) {
+        tables.forEach(this::save);
+        return List.of();
+    }
+}
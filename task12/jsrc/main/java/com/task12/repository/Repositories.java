@@ -0,0 +1,22 @@
+package com.task12.repository;
+
+import java.util.Optional;
+
+/**
+ * The storage engine selected by the storage_engine environment variable: "dynamodb" (default)
+ * or "memory" for a single-node, network-free deployment.
+ */
+public record Repositories(TableRepository tables, ReservationRepository reservations, IdempotencyRepository idempotency) {
+    private static final String STORAGE_ENGINE = "storage_engine";
+
+    public static Repositories fromEnvironment() {
+        String engine = Optional.ofNullable(System.getenv(STORAGE_ENGINE)).orElse("dynamodb");
+        return switch (engine) {
+            case "dynamodb" -> new Repositories(new DynamoTableRepository(), new DynamoReservationRepository(),
+                    new DynamoIdempotencyRepository());
+            case "memory" -> new Repositories(new InMemoryTableRepository(), new InMemoryReservationRepository(),
+                    new InMemoryIdempotencyRepository());
+            default -> throw new IllegalStateException("Unknown " + STORAGE_ENGINE + ": " + engine);
+        };
+    }
+}
@@ -0,0 +1,136 @@
+package com.task12.repository;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage of reservations, in the reservations_table item layout. Reservations of a table are
+ * listed ordered by slotKey, which sorts by date and then start time.
+ * <p>
+ * Besides the date and HH:mm strings returned by the API, items carry the slot as numbers:
+ * startMinute and endMinute (minute of day) and startAt, a sortable yyyyMMdd * 10000 + startMinute,
+ * so a day of a table is an integer range on the by-start index and needs no time parsing.
+ */
+public interface ReservationRepository {
+    int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * What is booked for a table on a date, as read before a booking. Reading it does not depend on any
+     * other check of the request, so callers may fetch it alongside them and hand it to {@link #book}.
+     */
+    interface Availability {
+        int tableNumber();
+
+        String date();
+    }
+
+    Availability findAvailability(int tableNumber, String date);
+
+    /**
+     * Stores the reservation if no other reservation of the table overlaps [slotTimeStart, slotTimeEnd)
+     * on the date of availability, widened to 15-minute slots. When availability turns out to be stale,
+     * it is read again.
+     *
+     * @throws IllegalArgumentException if the slots are already taken
+     * @throws IllegalStateException if the booking kept racing with concurrent ones and gave up
+     * @throws OutcomeUnknownException if the write failed in a way that may have stored it anyway, and
+     *                                 checking whether it did failed too
+     */
+    void book(Availability availability, LocalTime slotTimeStart, LocalTime slotTimeEnd, Map<String, AttributeValue> reservation);
+
+    default void book(int tableNumber, String date, LocalTime slotTimeStart, LocalTime slotTimeEnd, Map<String, AttributeValue> reservation) {
+        book(findAvailability(tableNumber, date), slotTimeStart, slotTimeEnd, reservation);
+    }
+
+    /**
+     * A booking that may or may not have been stored. Retrying it could book the table twice, or report
+     * its own reservation as a conflict.
+     */
+    final class OutcomeUnknownException extends IllegalStateException {
+        public OutcomeUnknownException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * One reservation of a batch, with what {@link #book} takes for it.
+     */
+    record Booking(int tableNumber, String date, LocalTime slotTimeStart, LocalTime slotTimeEnd,
+                   Map<String, AttributeValue> reservation) {}
+
+    /**
+     * Stores many reservations at once. Each is checked against what is already booked and against the
+     * bookings before it in the batch, so of two overlapping bookings only the first is stored.
+     *
+     * @return one entry per booking, in order: null when it was stored, otherwise why it was not
+     */
+    default List<String> bookAll(List<Booking> bookings) {
+        List<String> errors = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            try {
+                book(booking.tableNumber(), booking.date(), booking.slotTimeStart(), booking.slotTimeEnd(), booking.reservation());
+                errors.add(null);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                errors.add(e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Reads up to limit reservations of a table, starting after exclusiveStartKey (a lastEvaluatedKey
+     * of a previous page) or from the beginning when it is null.
+     */
+    ItemPage findByTable(int tableNumber, Map<String, AttributeValue> exclusiveStartKey, int limit);
+
+    static String slotKey(String date, String slotTimeStart) {
+        return date + "#" + slotTimeStart;
+    }
+
+    static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Minute of day of an HH:mm string, without a formatter; for items written before startMinute existed.
+     */
+    static int minuteOfDay(String time) {
+        int separator = time.indexOf(':');
+        return Integer.parseInt(time, 0, separator, 10) * 60 + Integer.parseInt(time, separator + 1, time.length(), 10);
+    }
+
+    /**
+     * Minute of day at which a slot ending at time ends: an end of 00:00 is the end of the day, 1440,
+     * so a slot ending at midnight still ends after it starts.
+     */
+    static int endMinuteOfDay(LocalTime time) {
+        return time.equals(LocalTime.MIDNIGHT) ? MINUTES_PER_DAY : minuteOfDay(time);
+    }
+
+    static int endMinuteOfDay(String time) {
+        int minute = minuteOfDay(time);
+        return minute == 0 ? MINUTES_PER_DAY : minute;
+    }
+
+    /**
+     * End minute of the slots a stored reservation takes. Reservations made before slotTimeEnd had to
+     * follow slotTimeStart may end at or before their start; they are taken to run to the end of the day.
+     */
+    static int occupiedEndMinute(int startMinute, int endMinute) {
+        return endMinute <= startMinute || endMinute > MINUTES_PER_DAY ? MINUTES_PER_DAY : endMinute;
+    }
+
+    /**
+     * The startAt sort key of a slot starting at startMinute on a yyyy-MM-dd date.
+     */
+    static long startAt(String date, int startMinute) {
+        long day = Integer.parseInt(date, 0, 4, 10) * 10000L
+                + Integer.parseInt(date, 5, 7, 10) * 100L
+                + Integer.parseInt(date, 8, 10, 10);
+        return day * 10000 + startMinute;
+    }
+}
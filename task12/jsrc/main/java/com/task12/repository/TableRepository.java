@@ -0,0 +1,29 @@
+package com.task12.repository;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage of restaurant tables. Rows are items in the tables_table layout (id as S; number, places
+ * and minOrder as N; isVip as BOOL), so responses can be written straight from them.
+ */
+public interface TableRepository {
+
+    List<Map<String, AttributeValue>> findAll();
+
+    /**
+     * @return the table, or null when there is none with this id
+     */
+    Map<String, AttributeValue> findById(String id);
+
+    void save(Map<String, AttributeValue> table);
+
+    /**
+     * Saves many tables at once; their ids must be distinct.
+     *
+     * @return the tables that could not be written before giving up, empty when all of them were
+     */
+    List<Map<String, AttributeValue>> saveAll(List<Map<String, AttributeValue>> tables);
+}
@@ -0,0 +1,161 @@
+package com.task12.server;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.task12.ApiHandler;
+import com.task12.handler.JsonCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the booking API as a long-lived HTTP server instead of a Lambda. Each request is adapted
+ * into an APIGatewayProxyRequestEvent and dispatched through one shared {@link ApiHandler}, so
+ * routing, local token verification and every handler are the same as on Lambda. Requests run
+ * on a virtual thread each when the JVM has them, otherwise on a bounded platform thread pool.
+ * <p>
+ * Configuration: PORT (default 8080), server_threads for the fallback pool (default 200),
+ * request_timeout_seconds for the handler deadline (default 30), plus the api_handler variables.
+ */
+public final class ApiServer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiServer.class);
+    private static final int BACKLOG = 1024;
+    private static final int SHUTDOWN_GRACE_SECONDS = 5;
+    private final ApiHandler apiHandler;
+    private final long requestTimeoutMillis;
+
+    ApiServer(ApiHandler apiHandler, long requestTimeoutMillis) {
+        this.apiHandler = apiHandler;
+        this.requestTimeoutMillis = requestTimeoutMillis;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(Optional.ofNullable(System.getenv("PORT")).orElse("8080"));
+        int threads = Integer.parseInt(Optional.ofNullable(System.getenv("server_threads")).orElse("200"));
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(
+                Long.parseLong(Optional.ofNullable(System.getenv("request_timeout_seconds")).orElse("30")));
+
+        ApiServer apiServer = new ApiServer(new ApiHandler(), timeoutMillis);
+        ExecutorService executor = newRequestExecutor(threads);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext("/", apiServer::handle);
+        server.setExecutor(executor);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(SHUTDOWN_GRACE_SECONDS);
+            executor.shutdown();
+        }));
+        server.start();
+        LOGGER.info("Booking API listening on port {}", port);
+    }
+
+    /**
+     * Virtual threads need Java 21; the lambda targets Java 17, so they are looked up reflectively.
+     */
+    static ExecutorService newRequestExecutor(int fallbackThreads) {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            LOGGER.info("Serving requests on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            LOGGER.info("Virtual threads unavailable, serving requests on {} platform threads", fallbackThreads);
+            return Executors.newFixedThreadPool(fallbackThreads);
+        }
+    }
+
+    void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            APIGatewayProxyResponseEvent response;
+            try {
+                String requestId = UUID.randomUUID().toString();
+                response = apiHandler.handleRequest(toRequestEvent(exchange, requestId),
+                        new ServerContext(requestId, System.currentTimeMillis() + requestTimeoutMillis));
+            } catch (RuntimeException e) {
+                LOGGER.error("Unhandled error for {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+                response = ApiHandler.createResponse(500, JsonCodec.error("Internal server error"));
+            }
+            writeResponse(exchange, response);
+        }
+    }
+
+    private static APIGatewayProxyRequestEvent toRequestEvent(HttpExchange exchange, String requestId) throws IOException {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, List<String>> multiValueHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name, values.get(0));
+                multiValueHeaders.put(name, values);
+            }
+        });
+
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readAllBytes();
+            body = bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        APIGatewayProxyRequestEvent.ProxyRequestContext requestContext = new APIGatewayProxyRequestEvent.ProxyRequestContext();
+        requestContext.setRequestId(requestId);
+        String path = exchange.getRequestURI().getPath();
+        return new APIGatewayProxyRequestEvent()
+                .withHttpMethod(exchange.getRequestMethod())
+                .withPath(path)
+                .withHeaders(headers)
+                .withMultiValueHeaders(multiValueHeaders)
+                .withQueryStringParameters(queryParameters(exchange.getRequestURI().getRawQuery()))
+                .withRequestContext(requestContext)
+                .withBody(body);
+    }
+
+    private static Map<String, String> queryParameters(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return null;
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String name = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), StandardCharsets.UTF_8);
+            String value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            parameters.putIfAbsent(name, value);
+        }
+        return parameters;
+    }
+
+    private static void writeResponse(HttpExchange exchange, APIGatewayProxyResponseEvent response) throws IOException {
+        if (response.getHeaders() != null) {
+            response.getHeaders().forEach(exchange.getResponseHeaders()::set);
+        }
+        if (!exchange.getResponseHeaders().containsKey("Content-Type")) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+        }
+        byte[] body = response.getBody() == null ? new byte[0] : response.getBody().getBytes(StandardCharsets.UTF_8);
+        int statusCode = response.getStatusCode() == null ? 200 : response.getStatusCode();
+        exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}